@@ -0,0 +1,42 @@
+// ============================================================
+// File: ArrayNumericColumn.java
+// Purpose: NumericColumn backed by a heap double[]
+// ============================================================
+
+import java.util.Arrays;
+import java.util.List;
+
+public class ArrayNumericColumn implements NumericColumn {
+    private double[] values;
+
+    // Constructor (the array is used as is, not copied)
+    public ArrayNumericColumn(double[] values) {
+        this.values = values;
+    }
+
+    // Build from boxed values
+    public static ArrayNumericColumn of(List<Double> values) {
+        double[] array = new double[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return new ArrayNumericColumn(array);
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public double get(int index) {
+        return values[index];
+    }
+
+    @Override
+    public NumericColumn sortedValues() {
+        double[] sorted = Arrays.stream(values).filter(v -> !Double.isNaN(v)).toArray();
+        Arrays.parallelSort(sorted);
+        return new ArrayNumericColumn(sorted);
+    }
+}
@@ -4,12 +4,14 @@
 // ============================================================
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 public class CSVReader {
     private String filePath;
     private char delimiter;
+    private LoadMetrics metrics;
     
     // Constructor with default comma delimiter
     public CSVReader(String filePath) {
@@ -22,16 +24,69 @@ public class CSVReader {
         this.delimiter = delimiter;
     }
     
+    // Record read/parse timings into the given metrics (null to disable)
+    public void setMetrics(LoadMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
     // Read CSV file and return as List of String arrays
     public List<String[]> readCSV() throws IOException {
+        if (CSVTokenizer.supports(delimiter)) {
+            return readWithTokenizer();
+        }
+        return readLines();
+    }
+    
+    // Byte-level path: block tokenizer over UTF-8 bytes; quoted fields
+    // may span lines
+    private List<String[]> readWithTokenizer() throws IOException {
+        List<String[]> data = new ArrayList<>();
+        long allocatedBefore = LoadMetrics.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        
+        // Compressed input (.gz, .zip, deflate) is decompressed on a pipeline thread
+        try (TimedInputStream in = new TimedInputStream(DecompressionPipeline.open(filePath, metrics))) {
+            new CSVTokenizer(delimiter).tokenize(in, data::add);
+            
+            if (metrics != null) {
+                long total = System.nanoTime() - start;
+                long allocatedAfter = LoadMetrics.currentThreadAllocatedBytes();
+                long allocated = (allocatedBefore < 0 || allocatedAfter < 0) ? 0 : allocatedAfter - allocatedBefore;
+                metrics.recordPhase("read", in.nanos, in.bytes, data.size(), 0);
+                metrics.recordPhase("parse", total - in.nanos, in.bytes, data.size(), allocated);
+            }
+        } catch (FileNotFoundException e) {
+            System.out.println("File not found: " + filePath);
+            throw new IOException("Cannot find file: " + filePath);
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e.getMessage());
+            throw e;
+        }
+        
+        return data;
+    }
+    
+    // Line-based path for delimiters the byte tokenizer cannot handle
+    private List<String[]> readLines() throws IOException {
         List<String[]> data = new ArrayList<>();
+        long readNanos = 0;
+        long parseNanos = 0;
+        long allocatedBefore = LoadMetrics.currentThreadAllocatedBytes();
         
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                DecompressionPipeline.open(filePath, metrics), StandardCharsets.UTF_8))) {
             String line;
+            long mark = System.nanoTime();
             while ((line = br.readLine()) != null) {
+                long afterRead = System.nanoTime();
+                readNanos += afterRead - mark;
+                
                 // Parse each line into array of values
                 String[] row = parseLine(line);
                 data.add(row);
+                
+                mark = System.nanoTime();
+                parseNanos += mark - afterRead;
             }
         } catch (FileNotFoundException e) {
             System.out.println("File not found: " + filePath);
@@ -41,11 +96,39 @@ public class CSVReader {
             throw e;
         }
         
+        if (metrics != null) {
+            // Allocation of the interleaved loop is reported under "parse"
+            long allocatedAfter = LoadMetrics.currentThreadAllocatedBytes();
+            long allocated = (allocatedBefore < 0 || allocatedAfter < 0) ? 0 : allocatedAfter - allocatedBefore;
+            long bytes = new File(filePath).length();
+            metrics.recordPhase("read", readNanos, bytes, data.size(), 0);
+            metrics.recordPhase("parse", parseNanos, bytes, data.size(), allocated);
+        }
+        
         return data;
     }
     
+    // Input stream that counts bytes and time spent reading
+    private static class TimedInputStream extends FilterInputStream {
+        long nanos;
+        long bytes;
+        
+        TimedInputStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            long start = System.nanoTime();
+            int n = super.read(buffer, offset, length);
+            nanos += System.nanoTime() - start;
+            if (n > 0) bytes += n;
+            return n;
+        }
+    }
+    
     // Parse a single CSV line handling quoted fields
-    private String[] parseLine(String line) {
+    String[] parseLine(String line) {
         List<String> fields = new ArrayList<>();
         StringBuilder field = new StringBuilder();
         boolean inQuotes = false;
@@ -91,12 +174,12 @@ public class CSVReader {
         return data;
     }
     
-    // Get header row only
+    // Get header row only (reads just the first line)
     public String[] getHeader() throws IOException {
-        List<String[]> data = readCSV();
-        if (!data.isEmpty()) {
-            return data.get(0);
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                DecompressionPipeline.open(filePath, null), StandardCharsets.UTF_8))) {
+            String line = br.readLine();
+            return line == null ? new String[0] : parseLine(line);
         }
-        return new String[0];
     }
 }
@@ -0,0 +1,231 @@
+// ============================================================
+// File: CSVTokenizer.java
+// Purpose: Byte-level CSV tokenizer over UTF-8 input. Finds quote,
+//          delimiter and newline positions 64 bytes at a time as
+//          bitmasks (SWAR: 8 bytes per long), simdcsv style.
+// ============================================================
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CSVTokenizer {
+    public static final int BLOCK = 64;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private static final VarHandle LONGS =
+        MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+
+    // Receives structural characters found outside quotes
+    public interface StructureHandler {
+        void delimiter(long position);
+        void newline(long position);
+    }
+
+    // Receives complete rows
+    public interface RowHandler {
+        void row(String[] fields);
+    }
+
+    private final long delimiterPattern;
+    private final long quotePattern = ONES * '"';
+    private final long newlinePattern = ONES * '\n';
+    private long insideQuotes;  // All ones when the previous block ended inside quotes
+
+    // Constructor (delimiter must be a single-byte ASCII character)
+    public CSVTokenizer(char delimiter) {
+        if (!supports(delimiter)) {
+            throw new IllegalArgumentException("Delimiter must be ASCII and not a quote or newline");
+        }
+        this.delimiterPattern = ONES * (delimiter & 0xFF);
+    }
+
+    // Check whether a delimiter can be handled by the byte tokenizer
+    public static boolean supports(char delimiter) {
+        return delimiter > 0 && delimiter < 0x80 && delimiter != '"' && delimiter != '\n' && delimiter != '\r';
+    }
+
+    // Bit i set where byte i of the word equals the pattern byte
+    private static long byteMask(long word, long pattern) {
+        long x = word ^ pattern;
+        long zero = ~(((x & LOW7) + LOW7) | x | LOW7);  // 0x80 in every zero byte
+        return ((zero >>> 7) * 0x0102040810204080L) >>> 56;
+    }
+
+    // Prefix XOR: bit i = xor of bits 0..i (turns quote positions into
+    // "inside quotes" regions)
+    private static long prefixXor(long bits) {
+        bits ^= bits << 1;
+        bits ^= bits << 2;
+        bits ^= bits << 4;
+        bits ^= bits << 8;
+        bits ^= bits << 16;
+        bits ^= bits << 32;
+        return bits;
+    }
+
+    // Scan whole 64-byte blocks of buffer[offset, offset + length); returns
+    // the number of bytes scanned (a multiple of 64). Set last to also scan
+    // the trailing partial block. basePosition is the stream offset of
+    // buffer[offset] and is added to reported positions.
+    public int scan(byte[] buffer, int offset, int length, long basePosition,
+                    boolean last, StructureHandler handler) {
+        int scanned = 0;
+        byte[] padded = null;
+
+        while (scanned < length) {
+            byte[] block = buffer;
+            int start = offset + scanned;
+            if (length - scanned < BLOCK) {
+                if (!last) break;
+                // Copy the tail into a zero-padded block
+                padded = new byte[BLOCK];
+                System.arraycopy(buffer, start, padded, 0, length - scanned);
+                block = padded;
+                start = 0;
+            }
+
+            long quotes = 0;
+            long delimiters = 0;
+            long newlines = 0;
+            for (int w = 0; w < 8; w++) {
+                long word = (long) LONGS.get(block, start + w * 8);
+                int shift = w * 8;
+                quotes |= byteMask(word, quotePattern) << shift;
+                delimiters |= byteMask(word, delimiterPattern) << shift;
+                newlines |= byteMask(word, newlinePattern) << shift;
+            }
+
+            long inside = prefixXor(quotes) ^ insideQuotes;
+            insideQuotes = inside >> 63;  // Carry quote state into the next block
+
+            long structural = (delimiters | newlines) & ~inside;
+            if (padded != null) {
+                structural &= (length - scanned == BLOCK) ? -1L : (1L << (length - scanned)) - 1;
+            }
+            while (structural != 0) {
+                int bit = Long.numberOfTrailingZeros(structural);
+                long position = basePosition + scanned + bit;
+                if ((newlines >>> bit & 1) != 0) {
+                    handler.newline(position);
+                } else {
+                    handler.delimiter(position);
+                }
+                structural &= structural - 1;
+            }
+            scanned += Math.min(BLOCK, length - scanned);
+        }
+        return scanned;
+    }
+
+    // Tokenize a whole stream into rows. Quoted fields may contain
+    // delimiters and newlines; fields are unquoted and trimmed.
+    public void tokenize(InputStream in, RowHandler rowHandler) throws IOException {
+        RowBuilder rows = new RowBuilder(rowHandler);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int filled = 0;       // Bytes in buffer
+        int scanPosition = 0; // Bytes already scanned
+        long bufferBase = 0;  // Stream offset of buffer[0]
+        boolean eof = false;
+
+        while (!eof) {
+            // A cancelled load (interrupted thread) stops here
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Tokenizing interrupted");
+            }
+
+            // Keep the unfinished field, drop everything before it
+            int keepFrom = (int) (rows.fieldStart - bufferBase);
+            if (keepFrom > 0) {
+                System.arraycopy(buffer, keepFrom, buffer, 0, filled - keepFrom);
+                filled -= keepFrom;
+                scanPosition -= keepFrom;
+                bufferBase += keepFrom;
+            }
+            if (filled == buffer.length) {
+                // One field larger than the buffer
+                buffer = java.util.Arrays.copyOf(buffer, buffer.length * 2);
+            }
+
+            int n = in.read(buffer, filled, buffer.length - filled);
+            if (n < 0) {
+                eof = true;
+            } else {
+                filled += n;
+            }
+
+            rows.buffer = buffer;
+            rows.bufferBase = bufferBase;
+            scanPosition += scan(buffer, scanPosition, filled - scanPosition,
+                                 bufferBase + scanPosition, eof, rows);
+        }
+
+        // Last line without trailing newline
+        long end = bufferBase + filled;
+        if (rows.fieldStart < end || !rows.fields.isEmpty()) {
+            rows.newline(end);
+        }
+    }
+
+    // Decode field bytes: quotes removed ("" inside quotes is a quote),
+    // UTF-8 decoded and trimmed, matching CSVReader.parseLine
+    public static String decodeField(byte[] bytes, int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            if (bytes[i] == '"') {
+                byte[] copy = new byte[length];
+                int out = 0;
+                boolean inQuotes = false;
+                for (int j = start; j < start + length; j++) {
+                    byte b = bytes[j];
+                    if (b == '"') {
+                        if (inQuotes && j + 1 < start + length && bytes[j + 1] == '"') {
+                            copy[out++] = '"';
+                            j++;
+                        } else {
+                            inQuotes = !inQuotes;
+                        }
+                    } else {
+                        copy[out++] = b;
+                    }
+                }
+                return new String(copy, 0, out, StandardCharsets.UTF_8).trim();
+            }
+        }
+        return new String(bytes, start, length, StandardCharsets.UTF_8).trim();
+    }
+
+    // Turns structural positions into decoded rows
+    private static class RowBuilder implements StructureHandler {
+        private RowHandler rowHandler;
+        private List<String> fields = new ArrayList<>();
+        private long fieldStart;
+        private byte[] buffer;
+        private long bufferBase;
+
+        RowBuilder(RowHandler rowHandler) {
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public void delimiter(long position) {
+            int start = (int) (fieldStart - bufferBase);
+            fields.add(decodeField(buffer, start, (int) (position - fieldStart)));
+            fieldStart = position + 1;
+        }
+
+        @Override
+        public void newline(long position) {
+            delimiter(position);
+            rowHandler.row(fields.toArray(new String[0]));
+            fields.clear();
+        }
+    }
+}
@@ -9,7 +9,11 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 public class CSVVisualizationApp extends JFrame {
     private JTabbedPane tabbedPane;
@@ -17,8 +21,18 @@ public class CSVVisualizationApp extends JFrame {
     private DataTablePanel tablePanel;
     private StatisticsPanel statisticsPanel;
     private ChartVisualizationPanel chartPanel;
+    private DiagnosticsPanel diagnosticsPanel;
+    private CorrelationHeatmapPanel correlationPanel;
     private JComboBox<String> columnSelector;
     private JLabel statusLabel;
+    private JLabel memoryLabel;
+    private JRadioButtonMenuItem lazyStorageItem;
+    private JRadioButtonMenuItem offHeapStorageItem;
+    private JCheckBoxMenuItem previewItem;
+    private SwingWorker<DataSet, Void> loadWorker;  // Load in progress (null when idle)
+    
+    // Files at least this large get a sampled preview while loading
+    private static final long PREVIEW_MIN_BYTES = 32L * 1024 * 1024;
     
     // Constructor
     public CSVVisualizationApp() {
@@ -38,12 +52,38 @@ public class CSVVisualizationApp extends JFrame {
         statusLabel = new JLabel("Ready to load CSV file...");
         statusLabel.setBorder(BorderFactory.createEtchedBorder());
         
+        memoryLabel = new JLabel(MemoryManager.get().getStatusText());
+        memoryLabel.setBorder(BorderFactory.createEtchedBorder());
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        statusPanel.add(statusLabel, BorderLayout.CENTER);
+        statusPanel.add(memoryLabel, BorderLayout.EAST);
+        
         // Main panel
         JPanel mainPanel = new JPanel(new BorderLayout());
         mainPanel.add(tabbedPane, BorderLayout.CENTER);
-        mainPanel.add(statusLabel, BorderLayout.SOUTH);
+        mainPanel.add(statusPanel, BorderLayout.SOUTH);
         
         add(mainPanel);
+        
+        // Refresh diagnostics, and compute correlations the first time,
+        // when their tab is selected
+        tabbedPane.addChangeListener(e -> {
+            if (diagnosticsPanel != null && tabbedPane.getSelectedComponent() == diagnosticsPanel) {
+                diagnosticsPanel.refresh();
+            }
+            if (correlationPanel != null && tabbedPane.getSelectedComponent() == correlationPanel) {
+                correlationPanel.computeIfNeeded();
+            }
+        });
+        
+        // Update memory usage once a second (evictions run on the
+        // MemoryManager's own thread)
+        new Timer(1000, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                memoryLabel.setText(MemoryManager.get().getStatusText());
+            }
+        }).start();
     }
     
     // Create menu bar
@@ -62,6 +102,33 @@ public class CSVVisualizationApp extends JFrame {
         });
         fileMenu.add(openItem);
         
+        JMenuItem openFolderItem = new JMenuItem("Open Folder of CSV Files");
+        openFolderItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                openCSVFolder();
+            }
+        });
+        fileMenu.add(openFolderItem);
+        
+        // Where loaded columns are kept: lazy mode indexes offsets and
+        // decodes columns on first use, off-heap mode keeps them in
+        // memory-mapped files outside the Java heap
+        JMenu storageMenu = new JMenu("Column Storage");
+        ButtonGroup storageGroup = new ButtonGroup();
+        JRadioButtonMenuItem heapStorageItem = new JRadioButtonMenuItem("In Memory", true);
+        lazyStorageItem = new JRadioButtonMenuItem("Lazy (decode on first use)");
+        offHeapStorageItem = new JRadioButtonMenuItem("Off-Heap (memory-mapped files)");
+        for (JRadioButtonMenuItem item : new JRadioButtonMenuItem[]{heapStorageItem, lazyStorageItem, offHeapStorageItem}) {
+            storageGroup.add(item);
+            storageMenu.add(item);
+        }
+        fileMenu.add(storageMenu);
+        
+        // Large files show a sampled preview while the full load runs
+        previewItem = new JCheckBoxMenuItem("Instant Preview of Large Files", true);
+        fileMenu.add(previewItem);
+        
         fileMenu.addSeparator();
         
         JMenuItem exitItem = new JMenuItem("Exit");
@@ -74,6 +141,40 @@ public class CSVVisualizationApp extends JFrame {
         fileMenu.add(exitItem);
         
         menuBar.add(fileMenu);
+        
+        // Data menu
+        JMenu dataMenu = new JMenu("Data");
+        
+        JMenuItem joinItem = new JMenuItem("Join With CSV File");
+        joinItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                joinWithCSVFile();
+            }
+        });
+        dataMenu.add(joinItem);
+        
+        JMenuItem sortFileItem = new JMenuItem("Sort Large CSV to File");
+        sortFileItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                sortCSVFile();
+            }
+        });
+        dataMenu.add(sortFileItem);
+        
+        dataMenu.addSeparator();
+        
+        JMenuItem budgetItem = new JMenuItem("Memory Budget...");
+        budgetItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                changeMemoryBudget();
+            }
+        });
+        dataMenu.add(budgetItem);
+        
+        menuBar.add(dataMenu);
         setJMenuBar(menuBar);
     }
     
@@ -81,76 +182,378 @@ public class CSVVisualizationApp extends JFrame {
     private void openCSVFile() {
         JFileChooser fileChooser = new JFileChooser();
         FileNameExtensionFilter filter = new FileNameExtensionFilter(
-            "CSV Files", "csv");
+            "CSV Files (plain, gzip, zip)", "csv", "gz", "zip", "deflate");
         fileChooser.setFileFilter(filter);
+        fileChooser.setMultiSelectionEnabled(true);
         
         int result = fileChooser.showOpenDialog(this);
         
         if (result == JFileChooser.APPROVE_OPTION) {
-            File selectedFile = fileChooser.getSelectedFile();
-            loadCSVData(selectedFile.getAbsolutePath());
+            File[] selectedFiles = fileChooser.getSelectedFiles();
+            if (selectedFiles.length > 1) {
+                // Several partitions: load in parallel into one DataSet
+                List<String> paths = new ArrayList<>();
+                for (File file : selectedFiles) {
+                    paths.add(file.getAbsolutePath());
+                }
+                String description = selectedFiles.length + " files";
+                loadData(description, () -> DataLoader.loadFiles(paths, description));
+            } else {
+                loadCSVData(fileChooser.getSelectedFile().getAbsolutePath());
+            }
+        }
+    }
+    
+    // Open folder dialog and load all CSV partitions inside it
+    private void openCSVFolder() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        
+        int result = fileChooser.showOpenDialog(this);
+        
+        if (result == JFileChooser.APPROVE_OPTION) {
+            String folderPath = fileChooser.getSelectedFile().getAbsolutePath();
+            loadData(folderPath, () -> DataLoader.loadDirectory(folderPath));
         }
     }
     
     // Load CSV data and initialize panels
     private void loadCSVData(String filePath) {
-        try {
-            statusLabel.setText("Loading file: " + filePath + "...");
-            
-            // Read CSV file
-            CSVReader reader = new CSVReader(filePath);
-            List<String[]> csvData = reader.readCSV();
-            
-            if (csvData.isEmpty()) {
-                statusLabel.setText("Error: CSV file is empty");
-                return;
+        Callable<DataSet> loader;
+        if (lazyStorageItem.isSelected()) {
+            loader = () -> DataLoader.loadLazy(filePath);
+        } else if (offHeapStorageItem.isSelected()) {
+            loader = () -> DataLoader.loadOffHeap(filePath);
+        } else {
+            loader = () -> DataLoader.load(filePath);
+        }
+        
+        loadData(filePath, loader);
+        
+        // Sample in a second worker; the preview is shown only while the
+        // full load it belongs to is still running
+        if (previewItem.isSelected() && new File(filePath).length() >= PREVIEW_MIN_BYTES) {
+            SwingWorker<DataSet, Void> fullLoad = loadWorker;
+            new SwingWorker<DataSet, Void>() {
+                private final PreviewSampler sampler = new PreviewSampler();
+                
+                @Override
+                protected DataSet doInBackground() throws Exception {
+                    return sampler.sample(filePath);
+                }
+                
+                @Override
+                protected void done() {
+                    if (loadWorker != fullLoad) {
+                        return;  // Full load finished first, or was superseded
+                    }
+                    try {
+                        DataSet preview = get();
+                        showDataSet(preview, filePath + " (preview)");
+                        statusLabel.setText("Preview of " + filePath + ": " + sampler.describe(preview)
+                            + " (approximate). Loading all rows...");
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (ExecutionException e) {
+                        // No preview; the full load reports any real problem
+                    }
+                }
+            }.execute();
+        }
+    }
+    
+    // Make a worker the current load and start it. A newer load (or
+    // join) supersedes one still running: cancel interrupts it (the
+    // tokenizer stops at its next buffer) and its result is dropped.
+    private void startLoadWorker(SwingWorker<DataSet, Void> worker) {
+        if (loadWorker != null) {
+            loadWorker.cancel(true);
+        }
+        loadWorker = worker;
+        worker.execute();
+    }
+    
+    // Run a loader in the background and show its DataSet when done
+    private void loadData(String description, Callable<DataSet> loader) {
+        statusLabel.setText("Loading: " + description + "...");
+        
+        startLoadWorker(new SwingWorker<DataSet, Void>() {
+            @Override
+            protected DataSet doInBackground() throws Exception {
+                // Read, parse and build DataSet (phases recorded in LoadMetrics)
+                return loader.call();
             }
             
-            // Initialize DataSet
-            dataSet = new DataSet();
-            
-            // Set headers (first row)
-            dataSet.setHeaders(csvData.get(0));
-            
-            // Add data rows
-            for (int i = 1; i < csvData.size(); i++) {
-                dataSet.addRow(csvData.get(i));
+            @Override
+            protected void done() {
+                if (isCancelled() || loadWorker != this) {
+                    return;
+                }
+                loadWorker = null;
+                try {
+                    showDataSet(get(), description);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    statusLabel.setText("Error: " + cause.getMessage());
+                    JOptionPane.showMessageDialog(CSVVisualizationApp.this, 
+                        "Error loading CSV: " + cause.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
+    }
+    
+    // Replace the current DataSet and rebuild all panels
+    private void showDataSet(DataSet newDataSet, String description) {
+        if (dataSet != null && dataSet != newDataSet) {
+            dataSet.releaseMemory();
+        }
+        if (tablePanel != null) {
+            tablePanel.releaseMemory();
+        }
+        if (chartPanel != null) {
+            MemoryManager.get().unregisterAll(chartPanel, "");
+        }
+        dataSet = newDataSet;
+        // Sizing the rows reads every cell, so track it off the EDT
+        final DataSet tracked = dataSet;
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                tracked.trackMemory();
+                return null;
+            }
+        }.execute();
+        
+        // Clear existing tabs (keeping the selected one, e.g. when the full
+        // load replaces a preview)
+        int selectedTab = tabbedPane.getSelectedIndex();
+        tabbedPane.removeAll();
+        
+        // Create new panels
+        tablePanel = new DataTablePanel(dataSet);
+        statisticsPanel = new StatisticsPanel(dataSet);
+        
+        // Use first inferred numeric column for chart
+        String numericColumn = dataSet.getColumnNames().get(0);
+        List<String> numericColumns = dataSet.getNumericColumns();
+        if (!numericColumns.isEmpty()) {
+            numericColumn = numericColumns.get(0);
+        }
+        
+        // Create chart panel
+        String categoryColumn = dataSet.getColumnNames().get(0);
+        chartPanel = new ChartVisualizationPanel(dataSet, categoryColumn, numericColumn);
+        
+        // Add tabs
+        tabbedPane.addTab("Data Table", tablePanel);
+        tabbedPane.addTab("Statistics", statisticsPanel);
+        tabbedPane.addTab("Charts", createChartControlPanel());
+        correlationPanel = new CorrelationHeatmapPanel(dataSet);
+        tabbedPane.addTab("Correlation", correlationPanel);
+        diagnosticsPanel = new DiagnosticsPanel(dataSet);
+        tabbedPane.addTab("Diagnostics", diagnosticsPanel);
+        
+        if (selectedTab >= 0 && selectedTab < tabbedPane.getTabCount()) {
+            tabbedPane.setSelectedIndex(selectedTab);
+        }
+        
+        statusLabel.setText("Successfully loaded: " + description + 
+                          " (Rows: " + dataSet.getRowCount() + 
+                          ", Columns: " + dataSet.getColumnCount() + ")");
+    }
+    
+    // Ask for a new memory budget (e.g. "512m", "2g") and evict down to it
+    private void changeMemoryBudget() {
+        MemoryManager memory = MemoryManager.get();
+        String input = JOptionPane.showInputDialog(this,
+            "Memory budget for tables, columns and caches (e.g. 512m, 2g):",
+            (memory.getBudget() >> 20) + "m");
+        if (input == null) return;
+        long budget = MemoryManager.parseBytes(input, -1);
+        if (budget <= 0) {
+            statusLabel.setText("Invalid memory budget: " + input);
+            return;
+        }
+        memory.setBudget(budget);
+        memoryLabel.setText(memory.getStatusText());
+        statusLabel.setText("Memory budget set to " + (budget >> 20) + " MB");
+    }
+    
+    // Join the current DataSet with another CSV file on a key column
+    private void joinWithCSVFile() {
+        if (dataSet == null) {
+            statusLabel.setText("Load a CSV file before joining");
+            return;
+        }
+        if (dataSet.isApproximate() || loadWorker != null) {
+            statusLabel.setText("Wait for the full load to finish before joining");
+            return;
+        }
+        
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileFilter(new FileNameExtensionFilter(
+            "CSV Files (plain, gzip, zip)", "csv", "gz", "zip", "deflate"));
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        String rightPath = fileChooser.getSelectedFile().getAbsolutePath();
+        DataSet left = dataSet;
+        
+        // Load the other file in the background, then ask for the keys;
+        // both steps run as the current load, so opening another file
+        // cancels the join
+        statusLabel.setText("Loading: " + rightPath + "...");
+        startLoadWorker(new SwingWorker<DataSet, Void>() {
+            @Override
+            protected DataSet doInBackground() throws Exception {
+                return DataLoader.load(rightPath);
             }
             
-            // Clear existing tabs
-            tabbedPane.removeAll();
-            
-            // Create new panels
-            tablePanel = new DataTablePanel(dataSet);
-            statisticsPanel = new StatisticsPanel(dataSet);
+            @Override
+            protected void done() {
+                if (isCancelled() || loadWorker != this) {
+                    return;
+                }
+                loadWorker = null;
+                if (dataSet != left) {
+                    return;  // Another table is shown now
+                }
+                try {
+                    chooseJoinKeys(left, get(), rightPath);
+                } catch (Exception e) {
+                    showJoinError(e);
+                }
+            }
+        });
+    }
+    
+    // Ask for key columns and join type, then join in the background
+    private void chooseJoinKeys(DataSet left, DataSet right, String rightPath) {
+        JComboBox<String> leftKey = new JComboBox<>(left.getColumnNames().toArray(new String[0]));
+        JComboBox<String> rightKey = new JComboBox<>(right.getColumnNames().toArray(new String[0]));
+        rightKey.setSelectedItem(leftKey.getSelectedItem());
+        JComboBox<DataSetJoiner.JoinType> joinType = new JComboBox<>(DataSetJoiner.JoinType.values());
+        
+        JPanel form = new JPanel(new GridLayout(3, 2, 5, 5));
+        form.add(new JLabel("Current key column:"));
+        form.add(leftKey);
+        form.add(new JLabel("Joined file key column:"));
+        form.add(rightKey);
+        form.add(new JLabel("Join type:"));
+        form.add(joinType);
+        
+        int choice = JOptionPane.showConfirmDialog(this, form, "Join With CSV",
+            JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION) {
+            statusLabel.setText("Join cancelled");
+            return;
+        }
+        
+        String[] leftKeys = {(String) leftKey.getSelectedItem()};
+        String[] rightKeys = {(String) rightKey.getSelectedItem()};
+        DataSetJoiner.JoinType type = (DataSetJoiner.JoinType) joinType.getSelectedItem();
+        statusLabel.setText("Joining with: " + rightPath + "...");
+        startLoadWorker(new SwingWorker<DataSet, Void>() {
+            @Override
+            protected DataSet doInBackground() throws Exception {
+                return new DataSetJoiner().join(left, right, leftKeys, rightKeys, type);
+            }
             
-            // Find numeric column for chart
-            String numericColumn = dataSet.getColumnNames().get(0);
-            for (String col : dataSet.getColumnNames()) {
-                List<Double> numData = dataSet.getColumnAsNumbers(col);
-                if (!numData.isEmpty()) {
-                    numericColumn = col;
-                    break;
+            @Override
+            protected void done() {
+                if (isCancelled() || loadWorker != this) {
+                    return;
+                }
+                loadWorker = null;
+                if (dataSet != left) {
+                    return;  // Another table is shown now
+                }
+                try {
+                    showDataSet(get(), "join with " + rightPath);
+                } catch (Exception e) {
+                    showJoinError(e);
                 }
             }
+        });
+    }
+    
+    private void showJoinError(Exception e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        statusLabel.setText("Error: " + cause.getMessage());
+        JOptionPane.showMessageDialog(this,
+            "Error joining CSV: " + cause.getMessage(),
+            "Error", JOptionPane.ERROR_MESSAGE);
+    }
+    
+    // Sort a CSV file of any size into a new file (external merge sort,
+    // run in the background; nothing is loaded into the table)
+    private void sortCSVFile() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileFilter(new FileNameExtensionFilter(
+            "CSV Files (plain, gzip, zip)", "csv", "gz", "zip", "deflate"));
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        String inputPath = fileChooser.getSelectedFile().getAbsolutePath();
+        
+        try {
+            // Ask for sort column and direction
+            String[] header = new CSVReader(inputPath).getHeader();
+            JComboBox<String> column = new JComboBox<>(header);
+            JComboBox<String> direction = new JComboBox<>(new String[]{"Ascending", "Descending"});
+            
+            JPanel form = new JPanel(new GridLayout(2, 2, 5, 5));
+            form.add(new JLabel("Sort by column:"));
+            form.add(column);
+            form.add(new JLabel("Order:"));
+            form.add(direction);
             
-            // Create chart panel
-            String categoryColumn = dataSet.getColumnNames().get(0);
-            chartPanel = new ChartVisualizationPanel(dataSet, categoryColumn, numericColumn);
+            int choice = JOptionPane.showConfirmDialog(this, form, "Sort Large CSV",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+            if (choice != JOptionPane.OK_OPTION) {
+                return;
+            }
             
-            // Add tabs
-            tabbedPane.addTab("Data Table", tablePanel);
-            tabbedPane.addTab("Statistics", statisticsPanel);
-            tabbedPane.addTab("Charts", createChartControlPanel());
+            // Output name ending in .bin gives binary rows instead of CSV
+            JFileChooser saveChooser = new JFileChooser();
+            saveChooser.setSelectedFile(new File(fileChooser.getSelectedFile().getParentFile(), "sorted.csv"));
+            if (saveChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            String outputPath = saveChooser.getSelectedFile().getAbsolutePath();
             
-            statusLabel.setText("Successfully loaded: " + filePath + 
-                              " (Rows: " + dataSet.getRowCount() + 
-                              ", Columns: " + dataSet.getColumnCount() + ")");
+            ExternalSorter sorter = new ExternalSorter((String) column.getSelectedItem(),
+                direction.getSelectedIndex() == 0);
+            statusLabel.setText("Sorting: " + inputPath + "...");
+            new SwingWorker<Void, Void>() {
+                @Override
+                protected Void doInBackground() throws Exception {
+                    sorter.sortToFile(inputPath, outputPath);
+                    return null;
+                }
+                
+                @Override
+                protected void done() {
+                    try {
+                        get();
+                        statusLabel.setText("Sorted into: " + outputPath);
+                    } catch (Exception e) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        statusLabel.setText("Error: " + cause.getMessage());
+                        JOptionPane.showMessageDialog(CSVVisualizationApp.this,
+                            "Error sorting CSV: " + cause.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }.execute();
             
         } catch (Exception e) {
             statusLabel.setText("Error: " + e.getMessage());
             JOptionPane.showMessageDialog(this, 
-                "Error loading CSV: " + e.getMessage(),
+                "Error sorting CSV: " + e.getMessage(),
                 "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
@@ -165,7 +568,7 @@ public class CSVVisualizationApp extends JFrame {
         
         // Chart type selector
         JLabel chartTypeLabel = new JLabel("Chart Type:");
-        String[] chartTypes = {"Bar Chart", "Line Chart", "Pie Chart"};
+        String[] chartTypes = {"Bar Chart", "Line Chart", "Pie Chart", "Histogram", "Scatter Plot"};
         JComboBox<String> chartTypeSelector = new JComboBox<>(chartTypes);
         chartTypeSelector.addActionListener(new ActionListener() {
             @Override
@@ -178,6 +581,60 @@ public class CSVVisualizationApp extends JFrame {
         controlPanel.add(chartTypeLabel);
         controlPanel.add(chartTypeSelector);
         
+        // Histogram binning selector
+        JComboBox<Histogram.Binning> binningSelector = new JComboBox<>(Histogram.Binning.values());
+        binningSelector.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                chartPanel.setHistogramBinning((Histogram.Binning) binningSelector.getSelectedItem());
+            }
+        });
+        
+        controlPanel.add(new JLabel("Bins:"));
+        controlPanel.add(binningSelector);
+        
+        // Rolling window for line chart overlays (editable: any row count)
+        JComboBox<String> rollingSelector = new JComboBox<>(new String[]{"Off", "5", "10", "20", "50", "100", "500"});
+        rollingSelector.setEditable(true);
+        rollingSelector.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                String selected = String.valueOf(rollingSelector.getSelectedItem()).trim();
+                try {
+                    chartPanel.setRollingWindow(selected.equalsIgnoreCase("Off") ? 0 : Math.max(0, Integer.parseInt(selected)));
+                } catch (NumberFormatException ex) {
+                    statusLabel.setText("Rolling window must be a whole number of rows");
+                }
+            }
+        });
+        
+        controlPanel.add(new JLabel("Rolling:"));
+        controlPanel.add(rollingSelector);
+        
+        // Scatter plot axes (numeric columns only)
+        List<String> numericColumns = dataSet.getNumericColumns();
+        if (!numericColumns.isEmpty()) {
+            String[] columns = numericColumns.toArray(new String[0]);
+            JComboBox<String> scatterXSelector = new JComboBox<>(columns);
+            JComboBox<String> scatterYSelector = new JComboBox<>(columns);
+            scatterYSelector.setSelectedIndex(Math.min(1, columns.length - 1));
+            ActionListener scatterListener = new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    chartPanel.setScatterColumns((String) scatterXSelector.getSelectedItem(),
+                                                 (String) scatterYSelector.getSelectedItem());
+                }
+            };
+            scatterXSelector.addActionListener(scatterListener);
+            scatterYSelector.addActionListener(scatterListener);
+            chartPanel.setScatterColumns(columns[0], columns[Math.min(1, columns.length - 1)]);
+            
+            controlPanel.add(new JLabel("Scatter X:"));
+            controlPanel.add(scatterXSelector);
+            controlPanel.add(new JLabel("Y:"));
+            controlPanel.add(scatterYSelector);
+        }
+        
         // Add panels
         mainPanel.add(controlPanel, BorderLayout.NORTH);
         mainPanel.add(chartPanel, BorderLayout.CENTER);
@@ -185,8 +642,61 @@ public class CSVVisualizationApp extends JFrame {
         return mainPanel;
     }
     
-    // Main method
+    // Load a file without GUI and print statistics and load metrics
+    private static void runHeadless(String filePath, String storage) {
+        try {
+            DataSet dataSet;
+            if (storage.equals("--preview")) {
+                PreviewSampler sampler = new PreviewSampler();
+                DataSet preview = sampler.sample(filePath);
+                System.out.println("Preview: " + sampler.describe(preview) + "\n");
+                System.out.println(preview.getSummary());
+                System.out.println(DataLoader.computeAllStatistics(preview));
+            }
+            if (new File(filePath).isDirectory()) {
+                dataSet = DataLoader.loadDirectory(filePath);
+            } else if (storage.equals("--lazy")) {
+                dataSet = DataLoader.loadLazy(filePath);
+            } else if (storage.equals("--offheap")) {
+                dataSet = DataLoader.loadOffHeap(filePath);
+            } else {
+                dataSet = DataLoader.load(filePath);
+            }
+            dataSet.trackMemory();
+            MemoryManager.get().enforce();  // Apply the budget now rather than in the background
+            System.out.println(dataSet.getSummary());
+            System.out.println(DataLoader.computeAllStatistics(dataSet));
+            System.out.println(CorrelationMatrix.compute(dataSet, CorrelationMatrix.Method.PEARSON).getReport());
+            System.out.println(dataSet.getLoadMetrics().getReport());
+            System.out.println(MemoryManager.get().getReport());
+        } catch (Exception e) {
+            System.out.println("Error loading CSV: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    // Main method (use "--headless [--lazy|--offheap|--preview] <file.csv|folder>" to run without GUI,
+    // or "--sort <column> [--desc] <input> <output>" to sort a file)
     public static void main(String[] args) {
+        if (args.length >= 4 && args[0].equals("--sort")) {
+            boolean descending = args[2].equals("--desc");
+            try {
+                ExternalSorter sorter = new ExternalSorter(args[1], !descending);
+                sorter.sortToFile(args[args.length - 2], args[args.length - 1]);
+                System.out.println(sorter.getMetrics().getReport());
+            } catch (IOException e) {
+                System.out.println("Error sorting CSV: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+
+        if (args.length >= 2 && args[0].equals("--headless")) {
+            String storage = args.length == 3 ? args[1] : "";
+            runHeadless(args[args.length - 1], storage);
+            return;
+        }
+        
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
@@ -1,21 +1,56 @@
 // ============================================================
 // File: ChartVisualizationPanel.java
-// Purpose: Display multiple chart types (bar, line, pie)
+// Purpose: Display multiple chart types (bar, line, pie, histogram,
+//          density scatter)
 // ============================================================
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 import java.util.List;
 
-public class ChartVisualizationPanel extends JPanel {
+public class ChartVisualizationPanel extends JPanel implements MemoryManager.Evictable {
     private DataSet dataSet;
     private String xAxisColumn;
     private String yAxisColumn;
-    private int chartType;  // 0=Bar, 1=Line, 2=Pie
+    private int chartType;  // 0=Bar, 1=Line, 2=Pie, 3=Histogram, 4=Scatter
     
     private final int BAR_CHART = 0;
     private final int LINE_CHART = 1;
     private final int PIE_CHART = 2;
+    private final int HISTOGRAM = 3;
+    private final int SCATTER = 4;
+    private final double MIN_SCATTER_ZOOM = 1e-6;  // Narrowest scatter view, as a fraction of the extent
+    private final double MAX_SCATTER_ZOOM = 1e3;   // Widest scatter view, as a multiple of the extent
+    
+    private Histogram.Binning histogramBinning = Histogram.Binning.FIXED_WIDTH;
+    private Histogram histogram;  // Cached until column or binning changes
+    private SwingWorker<Histogram, Void> histogramWorker;  // Histogram being computed (null = idle)
+    private String histogramMessage;       // Shown instead of the histogram (error)
+    
+    private int rollingWindow;                 // 0 = no rolling overlays
+    private volatile RollingStatistics.Series rolling;  // Cached until window changes or evicted
+    
+    private String scatterXColumn;
+    private String scatterYColumn;
+    private volatile int[] scatterOrder;   // Rows sorted by X, cached until evicted
+    private int scatterOrderVersion;       // DataSet modification count scatterOrder was sorted at
+    private double[] scatterExtent;        // Full data range {xMin, xMax, yMin, yMax}
+    private double[] scatterView;          // Visible range, null = full extent
+    private DensityGrid density;           // Grid for the current view and size
+    private BufferedImage densityImage;
+    private double[] densityKey;           // View, size and data version the grid was built for
+    private SwingWorker<ScatterResult, Void> scatterWorker;  // Grid being computed (null = idle)
+    private String scatterMessage;         // Shown instead of the plot (no data, error)
+    private volatile MinMaxPyramid linePyramid;  // Line chart values, cached until evicted
+    private int linePyramidVersion;        // DataSet modification count the pyramid was built at
+    private double[] lineView;             // Visible value index range {from, to}, null = all
+    private Point dragStart;
+    private double[] dragView;
     
     private int padding = 50;
     private int labelPadding = 25;
@@ -25,8 +60,77 @@ public class ChartVisualizationPanel extends JPanel {
         this.dataSet = dataSet;
         this.xAxisColumn = xAxis;
         this.yAxisColumn = yAxis;
+        this.scatterXColumn = xAxis;
+        this.scatterYColumn = yAxis;
         this.chartType = BAR_CHART;
         setBackground(Color.WHITE);
+        
+        // Scatter and line chart zoom (wheel, around the cursor), pan
+        // (drag) and reset (double-click)
+        MouseAdapter navigation = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (chartType == SCATTER && scatterExtent != null) {
+                    dragStart = e.getPoint();
+                    dragView = currentScatterView();
+                } else if (chartType == LINE_CHART && linePyramid != null) {
+                    dragStart = e.getPoint();
+                    dragView = currentLineView(linePyramid);
+                }
+            }
+            
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart == null) return;
+                double dx = (e.getX() - dragStart.x) * (dragView[1] - dragView[0]) / plotWidth();
+                if (chartType == SCATTER && dragView.length == 4) {
+                    double dy = (e.getY() - dragStart.y) * (dragView[3] - dragView[2]) / plotHeight();
+                    scatterView = new double[]{dragView[0] - dx, dragView[1] - dx, dragView[2] + dy, dragView[3] + dy};
+                } else if (chartType == LINE_CHART && dragView.length == 2 && linePyramid != null) {
+                    lineView = clampLineView(linePyramid, dragView[0] - dx, dragView[1] - dx);
+                } else {
+                    return;
+                }
+                repaint();
+            }
+            
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dragStart = null;
+            }
+            
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    scatterView = null;
+                    lineView = null;
+                    repaint();
+                }
+            }
+            
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                double factor = Math.pow(1.25, e.getPreciseWheelRotation());
+                double fx = Math.max(0, Math.min(1, (e.getX() - padding) / (double) plotWidth()));
+                if (chartType == LINE_CHART && linePyramid != null) {
+                    double[] view = currentLineView(linePyramid);
+                    double cx = view[0] + fx * (view[1] - view[0]);
+                    lineView = clampLineView(linePyramid, cx - (cx - view[0]) * factor, cx + (view[1] - cx) * factor);
+                    repaint();
+                    return;
+                }
+                if (chartType != SCATTER || scatterExtent == null) return;
+                double[] view = currentScatterView();
+                double fy = Math.max(0, Math.min(1, (e.getY() - padding) / (double) plotHeight()));
+                double[] xRange = zoomRange(view[0], view[1], fx, factor, scatterExtent[1] - scatterExtent[0]);
+                double[] yRange = zoomRange(view[2], view[3], 1 - fy, factor, scatterExtent[3] - scatterExtent[2]);
+                scatterView = new double[]{xRange[0], xRange[1], yRange[0], yRange[1]};
+                repaint();
+            }
+        };
+        addMouseListener(navigation);
+        addMouseMotionListener(navigation);
+        addMouseWheelListener(navigation);
     }
     
     // Set chart type
@@ -35,6 +139,55 @@ public class ChartVisualizationPanel extends JPanel {
         repaint();
     }
     
+    // Set X and Y columns of the scatter plot (resets zoom)
+    public void setScatterColumns(String xColumn, String yColumn) {
+        if (!xColumn.equals(scatterXColumn)) {
+            scatterOrder = null;
+            MemoryManager.get().unregister(this, "scatter");
+        }
+        this.scatterXColumn = xColumn;
+        this.scatterYColumn = yColumn;
+        this.scatterExtent = null;
+        this.scatterView = null;
+        this.density = null;
+        this.densityImage = null;
+        this.densityKey = null;
+        this.scatterMessage = null;
+        this.scatterWorker = null;  // A grid still computing for the old columns is dropped
+        repaint();
+    }
+    
+    // Set how histogram bins are chosen
+    public void setHistogramBinning(Histogram.Binning binning) {
+        this.histogramBinning = binning;
+        this.histogram = null;
+        this.histogramMessage = null;
+        this.histogramWorker = null;  // A histogram still computing for the old binning is dropped
+        repaint();
+    }
+    
+    // Set rolling window drawn over the line chart (0 to turn off)
+    public void setRollingWindow(int window) {
+        this.rollingWindow = window;
+        this.rolling = null;
+        MemoryManager.get().unregister(this, "rolling");
+        repaint();
+    }
+    
+    // Drop cached chart data when the MemoryManager asks (recomputed on
+    // the next paint)
+    @Override
+    public boolean evict(String part) {
+        if (part.equals("rolling")) {
+            rolling = null;
+        } else if (part.equals("line")) {
+            linePyramid = null;
+        } else if (part.equals("scatter")) {
+            scatterOrder = null;
+        }
+        return true;
+    }
+    
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
@@ -46,6 +199,7 @@ public class ChartVisualizationPanel extends JPanel {
         int width = getWidth();
         int height = getHeight();
         
+        LoadMetrics.PhaseTimer renderTimer = dataSet.startPhase("render");
         switch (chartType) {
             case BAR_CHART:
                 drawBarChart(g2d, width, height);
@@ -56,7 +210,21 @@ public class ChartVisualizationPanel extends JPanel {
             case PIE_CHART:
                 drawPieChart(g2d, width, height);
                 break;
+            case HISTOGRAM:
+                drawHistogram(g2d, width, height);
+                break;
+            case SCATTER:
+                drawScatterPlot(g2d, width, height);
+                break;
         }
+        
+        if (dataSet.isApproximate()) {
+            g2d.setColor(new Color(180, 100, 0));
+            g2d.setFont(new Font("Arial", Font.ITALIC, 12));
+            String note = "Approximate: preview sample";
+            g2d.drawString(note, width - g2d.getFontMetrics().stringWidth(note) - 10, height - 10);
+        }
+        renderTimer.stop(0, dataSet.getRowCount());
     }
     
     // Draw bar chart
@@ -110,27 +278,32 @@ public class ChartVisualizationPanel extends JPanel {
             
             // Draw category label
             g2d.setFont(new Font("Arial", Font.PLAIN, 10));
-            if (i < xValues.size()) {
+            if (i < xValues.size() && xValues.get(i) != null) {
                 g2d.drawString(xValues.get(i), x + 5, height - padding - labelPadding + 20);
             }
         }
     }
     
-    // Draw line chart
+    // Draw line chart. Values come from a min/max pyramid, so each pixel
+    // column costs a few summary reads however many values it covers;
+    // wheel zooms and dragging pans along the rows.
     private void drawLineChart(Graphics2D g2d, int width, int height) {
-        List<Double> yValues = dataSet.getColumnAsNumbers(yAxisColumn);
-        List<String> xValues = dataSet.getColumn(xAxisColumn);
+        MinMaxPyramid pyramid = linePyramid();
+        int n = pyramid.size();
         
-        if (yValues.size() < 2) {
+        if (n < 2) {
             g2d.drawString("Insufficient data for line chart", width / 2 - 100, height / 2);
             return;
         }
         
-        // Find max value
-        double maxValue = 0;
-        for (double val : yValues) {
-            if (val > maxValue) maxValue = val;
-        }
+        // Scale to the visible values (from zero when all are positive)
+        double[] view = currentLineView(pyramid);
+        int first = (int) Math.floor(view[0]);
+        int last = Math.min(n - 1, (int) Math.ceil(view[1]));
+        MinMaxPyramid.Summary visible = pyramid.summarize(first, last + 1);
+        double low = Math.min(0, visible.getMin());
+        double high = visible.getMax();
+        if (high <= low) high = low + 1;
         
         // Draw title
         g2d.setFont(new Font("Arial", Font.BOLD, 18));
@@ -146,32 +319,194 @@ public class ChartVisualizationPanel extends JPanel {
         
         int chartWidth = width - padding * 2;
         int chartHeight = height - padding * 2 - labelPadding;
+        int baseline = height - padding - labelPadding;
+        double span = view[1] - view[0];
+        double perPixel = span / chartWidth;
         
-        // Draw line
-        g2d.setColor(new Color(220, 20, 60));
-        g2d.setStroke(new BasicStroke(2.5f));
-        
-        for (int i = 0; i < yValues.size() - 1; i++) {
-            int x1 = padding + (i * chartWidth) / (yValues.size() - 1);
-            int y1 = height - padding - labelPadding - 
-                    (int) ((yValues.get(i) / maxValue) * chartHeight);
-            
-            int x2 = padding + ((i + 1) * chartWidth) / (yValues.size() - 1);
-            int y2 = height - padding - labelPadding - 
-                    (int) ((yValues.get(i + 1) / maxValue) * chartHeight);
+        Shape clip = g2d.getClip();
+        g2d.clipRect(padding, padding - 5, chartWidth + 1, chartHeight + 10);
+        if (perPixel <= 1) {
+            // Zoomed in: every value in view, joined by lines
+            g2d.setColor(new Color(220, 20, 60));
+            g2d.setStroke(new BasicStroke(2.5f));
+            for (int i = first; i < last; i++) {
+                g2d.drawLine(lineX(i, view, chartWidth), lineY(pyramid.get(i), low, high, baseline, chartHeight),
+                             lineX(i + 1, view, chartWidth), lineY(pyramid.get(i + 1), low, high, baseline, chartHeight));
+            }
             
-            g2d.drawLine(x1, y1, x2, y2);
+            // Draw data points (while there is room for them)
+            if (span * 10 <= chartWidth) {
+                g2d.setColor(new Color(0, 100, 200));
+                for (int i = first; i <= last; i++) {
+                    int x = lineX(i, view, chartWidth);
+                    int y = lineY(pyramid.get(i), low, high, baseline, chartHeight);
+                    g2d.fillOval(x - 4, y - 4, 8, 8);
+                }
+            }
+        } else {
+            // Many values per pixel: min-max bar and mean per pixel column
+            int[] xs = new int[chartWidth];
+            int[] meanYs = new int[chartWidth];
+            int columns = 0;
+            g2d.setColor(new Color(240, 128, 148));
+            g2d.setStroke(new BasicStroke(1.0f));
+            for (int px = 0; px < chartWidth; px++) {
+                int from = (int) (view[0] + px * perPixel);
+                int to = Math.min(n, Math.max(from + 1, (int) (view[0] + (px + 1) * perPixel)));
+                MinMaxPyramid.Summary summary = pyramid.summarize(from, to);
+                if (summary.getCount() == 0) continue;
+                int x = padding + px;
+                g2d.drawLine(x, lineY(summary.getMin(), low, high, baseline, chartHeight),
+                             x, lineY(summary.getMax(), low, high, baseline, chartHeight));
+                xs[columns] = x;
+                meanYs[columns] = lineY(summary.getMean(), low, high, baseline, chartHeight);
+                columns++;
+            }
+            g2d.setColor(new Color(220, 20, 60));
+            g2d.setStroke(new BasicStroke(1.5f));
+            g2d.drawPolyline(xs, meanYs, columns);
         }
         
-        // Draw data points
-        g2d.setColor(new Color(0, 100, 200));
-        for (int i = 0; i < yValues.size(); i++) {
-            int x = padding + (i * chartWidth) / (yValues.size() - 1);
-            int y = height - padding - labelPadding - 
-                   (int) ((yValues.get(i) / maxValue) * chartHeight);
-            
-            g2d.fillOval(x - 4, y - 4, 8, 8);
+        if (rollingWindow > 0) {
+            drawRollingOverlays(g2d, pyramid, view, low, high, baseline, chartWidth, chartHeight);
         }
+        g2d.setClip(clip);
+        
+        // Visible rows and navigation hint
+        g2d.setColor(Color.BLACK);
+        g2d.setFont(new Font("Arial", Font.PLAIN, 10));
+        g2d.drawString(String.format("%.4g", high), 5, padding + 10);
+        g2d.drawString(String.format("%.4g", low), 5, baseline);
+        g2d.drawString("Values " + (first + 1) + " to " + (last + 1) + " of " + n
+                       + (perPixel > 1 ? " (min-max and mean per pixel)" : ""), padding, baseline + 20);
+        String hint = "Wheel: zoom, drag: pan, double-click: reset";
+        g2d.drawString(hint, width - padding - g2d.getFontMetrics().stringWidth(hint), baseline + 20);
+    }
+    
+    // Pyramid of the Y column's numeric values, built once and then only
+    // extended with rows appended since the last paint. The column is
+    // only fetched to build or extend it, and a reorder of the rows
+    // (sort, spill) rebuilds it.
+    private MinMaxPyramid linePyramid() {
+        MinMaxPyramid pyramid = linePyramid;
+        int version = dataSet.getModificationCount();
+        if (pyramid != null && linePyramidVersion == version && pyramid.getRowsRead() == dataSet.getRowCount()) {
+            MemoryManager.get().touch(this, "line");
+            return pyramid;
+        }
+        
+        NumericColumn column = dataSet.getNumericColumn(yAxisColumn);
+        int before = pyramid == null ? -1 : pyramid.size();
+        if (pyramid == null || linePyramidVersion != version || !pyramid.appendFrom(column)) {
+            pyramid = new MinMaxPyramid(column);
+            before = -1;
+        }
+        linePyramidVersion = version;
+        if (pyramid.size() != before) {
+            linePyramid = pyramid;
+            MemoryManager.get().register(this, "line", "line chart pyramid of " + yAxisColumn,
+                                         MemoryManager.Kind.CACHE, pyramid.estimateBytes());
+        } else {
+            MemoryManager.get().touch(this, "line");
+        }
+        return pyramid;
+    }
+    
+    private double[] currentLineView(MinMaxPyramid pyramid) {
+        return lineView != null ? clampLineView(pyramid, lineView[0], lineView[1])
+                                : new double[]{0, pyramid.size() - 1};
+    }
+    
+    // Keep a view inside the values and at least a few values wide
+    private static double[] clampLineView(MinMaxPyramid pyramid, double from, double to) {
+        double last = pyramid.size() - 1;
+        double span = Math.max(Math.min(4, last), Math.min(last, to - from));
+        from = Math.max(0, Math.min(last - span, from));
+        return new double[]{from, from + span};
+    }
+    
+    // Zoom [low, high] by a factor, keeping the point at fraction f of it
+    // in place; the span stays within MIN/MAX_SCATTER_ZOOM of the extent,
+    // so the view never collapses to zero width or overflows
+    private double[] zoomRange(double low, double high, double f, double factor, double extentSpan) {
+        double span = (high - low) * factor;
+        span = Math.max(extentSpan * MIN_SCATTER_ZOOM, Math.min(extentSpan * MAX_SCATTER_ZOOM, span));
+        double from = low + f * (high - low) - f * span;
+        return new double[]{from, from + span};
+    }
+    
+    private int lineX(double index, double[] view, int chartWidth) {
+        return padding + (int) Math.round((index - view[0]) / (view[1] - view[0]) * chartWidth);
+    }
+    
+    private static int lineY(double value, double low, double high, int baseline, int chartHeight) {
+        return baseline - (int) ((value - low) / (high - low) * chartHeight);
+    }
+    
+    // Draw rolling min/max band, mean and mean +/- one standard deviation
+    // on the line chart's scale. When zoomed out, each pixel column shows
+    // the rolling values at the last row it covers.
+    private void drawRollingOverlays(Graphics2D g2d, MinMaxPyramid pyramid, double[] view,
+                                     double low, double high, int baseline, int chartWidth, int chartHeight) {
+        RollingStatistics.Series rolling = this.rolling;
+        if (rolling == null || rolling.size() != pyramid.size()) {
+            rolling = RollingStatistics.compute(pyramid.toArray(), rollingWindow);
+            this.rolling = rolling;
+            MemoryManager.get().register(this, "rolling", "rolling " + yAxisColumn + " (window " + rollingWindow + ")",
+                                         MemoryManager.Kind.CACHE, 16 + rolling.size() * 32L);
+        } else {
+            MemoryManager.get().touch(this, "rolling");
+        }
+        
+        // Rows to draw: each one in view, or one per pixel column
+        double perPixel = (view[1] - view[0]) / chartWidth;
+        int first = (int) Math.floor(view[0]);
+        int last = Math.min(rolling.size() - 1, (int) Math.ceil(view[1]));
+        int n = perPixel <= 1 ? last - first + 1 : chartWidth;
+        int[] rows = new int[n];
+        int[] xs = new int[n];
+        for (int i = 0; i < n; i++) {
+            rows[i] = perPixel <= 1 ? first + i
+                                    : Math.min(last, (int) (view[0] + (i + 1) * perPixel) - 1);
+            xs[i] = perPixel <= 1 ? lineX(rows[i], view, chartWidth) : padding + i;
+        }
+        
+        int[] meanYs = new int[n];
+        int[] upperYs = new int[n];
+        int[] lowerYs = new int[n];
+        int[] band = new int[2 * n];
+        int[] bandXs = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            double mean = rolling.getMean(rows[i]);
+            double std = rolling.getStandardDeviation(rows[i]);
+            meanYs[i] = lineY(mean, low, high, baseline, chartHeight);
+            upperYs[i] = lineY(mean + std, low, high, baseline, chartHeight);
+            lowerYs[i] = lineY(mean - std, low, high, baseline, chartHeight);
+            // Band polygon: max forwards, then min backwards
+            bandXs[i] = xs[i];
+            band[i] = lineY(rolling.getMax(rows[i]), low, high, baseline, chartHeight);
+            bandXs[2 * n - 1 - i] = xs[i];
+            band[2 * n - 1 - i] = lineY(rolling.getMin(rows[i]), low, high, baseline, chartHeight);
+        }
+        
+        g2d.setColor(new Color(255, 165, 0, 50));
+        g2d.fillPolygon(bandXs, band, 2 * n);
+        
+        g2d.setColor(new Color(34, 139, 34));
+        g2d.setStroke(new BasicStroke(1.5f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER,
+                                      10f, new float[]{6f, 4f}, 0f));
+        g2d.drawPolyline(xs, upperYs, n);
+        g2d.drawPolyline(xs, lowerYs, n);
+        
+        g2d.setColor(new Color(0, 100, 0));
+        g2d.setStroke(new BasicStroke(2.5f));
+        g2d.drawPolyline(xs, meanYs, n);
+        
+        // Legend
+        g2d.setFont(new Font("Arial", Font.PLAIN, 11));
+        g2d.drawString("Rolling mean \u00b1 std (window " + rollingWindow + ")", padding + 10, padding + 15);
+        g2d.setColor(new Color(205, 115, 0));
+        g2d.drawString("Rolling min/max band", padding + 10, padding + 30);
     }
     
     // Draw pie chart
@@ -218,4 +553,278 @@ public class ChartVisualizationPanel extends JPanel {
             startAngle += arcAngle;
         }
     }
+    
+    // Draw histogram: one scan of the column, a fixed number of bars.
+    // The column is read and binned by a background worker; a placeholder
+    // is shown until it finishes.
+    private void drawHistogram(Graphics2D g2d, int width, int height) {
+        if (histogram == null && histogramWorker == null && histogramMessage == null) {
+            startHistogramWorker();
+        }
+        if (histogramMessage != null) {
+            g2d.drawString(histogramMessage, width / 2 - 50, height / 2);
+            return;
+        }
+        if (histogram == null) {
+            g2d.drawString("Computing histogram...", width / 2 - 60, height / 2);
+            return;
+        }
+        
+        long maxCount = histogram.getMaxCount();
+        if (maxCount == 0) {
+            g2d.drawString("No data to display", width / 2 - 50, height / 2);
+            return;
+        }
+        
+        // Draw title
+        g2d.setFont(new Font("Arial", Font.BOLD, 18));
+        String title = "Histogram: " + yAxisColumn + " (" + histogram.getBinCount() + " bins)";
+        int titleWidth = g2d.getFontMetrics().stringWidth(title);
+        g2d.drawString(title, (width - titleWidth) / 2, padding - 10);
+        
+        // Draw axes
+        g2d.setColor(Color.BLACK);
+        g2d.setStroke(new BasicStroke(2.0f));
+        g2d.drawLine(padding, padding, padding, height - padding - labelPadding);
+        g2d.drawLine(padding, height - padding - labelPadding, width - padding, height - padding - labelPadding);
+        
+        int chartWidth = width - padding * 2;
+        int chartHeight = height - padding * 2 - labelPadding;
+        int bins = histogram.getBinCount();
+        double barWidth = (double) chartWidth / bins;
+        int baseline = height - padding - labelPadding;
+        
+        // Draw bars
+        for (int i = 0; i < bins; i++) {
+            int barHeight = (int) ((double) histogram.getCount(i) / maxCount * chartHeight);
+            int x = padding + (int) (i * barWidth);
+            int w = Math.max(1, (int) ((i + 1) * barWidth) - (int) (i * barWidth));
+            
+            g2d.setColor(new Color(70, 130, 180));
+            g2d.fillRect(x, baseline - barHeight, w, barHeight);
+            if (w > 3) {
+                g2d.setColor(Color.BLACK);
+                g2d.setStroke(new BasicStroke(1.0f));
+                g2d.drawRect(x, baseline - barHeight, w, barHeight);
+            }
+        }
+        
+        // Edge labels (first, middle, last) and max count
+        g2d.setColor(Color.BLACK);
+        g2d.setFont(new Font("Arial", Font.PLAIN, 10));
+        g2d.drawString(String.format("%.4g", histogram.getBinStart(0)), padding, baseline + 20);
+        g2d.drawString(String.format("%.4g", histogram.getBinStart(bins / 2)),
+                       padding + (int) (bins / 2 * barWidth), baseline + 20);
+        String last = String.format("%.4g", histogram.getBinEnd(bins - 1));
+        g2d.drawString(last, width - padding - g2d.getFontMetrics().stringWidth(last), baseline + 20);
+        g2d.drawString(String.valueOf(maxCount), 5, padding + 10);
+        
+        if (histogram.getExcludedCount() > 0) {
+            g2d.drawString(histogram.getExcludedCount() + " values excluded", padding + 5, padding + 10);
+        }
+    }
+    
+    // Read the column and bin it off the EDT
+    private void startHistogramWorker() {
+        String column = yAxisColumn;
+        Histogram.Binning binning = histogramBinning;
+        histogramWorker = new SwingWorker<Histogram, Void>() {
+            @Override
+            protected Histogram doInBackground() {
+                LoadMetrics.PhaseTimer histogramTimer = dataSet.startPhase("histogram");
+                Histogram result = Histogram.compute(dataSet.getColumnAsDoubles(column),
+                                                     binning, Histogram.DEFAULT_BINS);
+                histogramTimer.stop(0, dataSet.getRowCount());
+                return result;
+            }
+            
+            @Override
+            protected void done() {
+                if (histogramWorker != this) {
+                    return;  // Binning changed meanwhile
+                }
+                histogramWorker = null;
+                try {
+                    histogram = get();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    histogramMessage = "Error: " + cause.getMessage();
+                }
+                repaint();
+            }
+        };
+        histogramWorker.execute();
+    }
+    
+    private int plotWidth() {
+        return Math.max(1, getWidth() - padding * 2);
+    }
+    
+    private int plotHeight() {
+        return Math.max(1, getHeight() - padding * 2 - labelPadding);
+    }
+    
+    private double[] currentScatterView() {
+        return scatterView != null ? scatterView : scatterExtent;
+    }
+    
+    // Draw scatter plot as a density image: points are counted into one
+    // cell per pixel, so drawing costs the same for any number of rows.
+    // The X order, the extent and the grid are computed by a background
+    // worker; until it finishes the last image is shown (or a placeholder).
+    private void drawScatterPlot(Graphics2D g2d, int width, int height) {
+        int plotWidth = plotWidth();
+        int plotHeight = plotHeight();
+        int version = dataSet.getModificationCount();
+        int rows = dataSet.getRowCount();
+        double[] view = currentScatterView();  // null until the extent is known
+        boolean current = view != null && density != null && Arrays.equals(densityKey,
+            new double[]{view[0], view[1], view[2], view[3], plotWidth, plotHeight, version, rows});
+        if (!current && scatterWorker == null && scatterMessage == null) {
+            startScatterWorker(view, plotWidth, plotHeight, version);
+        }
+        if (scatterMessage != null) {
+            g2d.drawString(scatterMessage, width / 2 - 50, height / 2);
+            return;
+        }
+        if (density == null) {
+            g2d.drawString("Computing scatter plot...", width / 2 - 70, height / 2);
+            return;
+        }
+        
+        // Labels describe the image shown, which may lag the view briefly
+        double[] shown = densityKey;
+        g2d.drawImage(densityImage, padding, padding, null);
+        
+        // Draw title
+        g2d.setColor(Color.BLACK);
+        g2d.setFont(new Font("Arial", Font.BOLD, 18));
+        String title = "Scatter Plot: " + scatterYColumn + " vs " + scatterXColumn + (current ? "" : " (updating...)");
+        int titleWidth = g2d.getFontMetrics().stringWidth(title);
+        g2d.drawString(title, (width - titleWidth) / 2, padding - 10);
+        
+        // Draw axes
+        int baseline = padding + plotHeight;
+        g2d.setStroke(new BasicStroke(2.0f));
+        g2d.drawLine(padding, padding, padding, baseline);
+        g2d.drawLine(padding, baseline, padding + plotWidth, baseline);
+        
+        // Range labels, point count and zoom hint
+        g2d.setFont(new Font("Arial", Font.PLAIN, 10));
+        g2d.drawString(String.format("%.4g", shown[0]), padding, baseline + 20);
+        String right = String.format("%.4g", shown[1]);
+        g2d.drawString(right, padding + plotWidth - g2d.getFontMetrics().stringWidth(right), baseline + 20);
+        g2d.drawString(String.format("%.4g", shown[3]), 5, padding + 10);
+        g2d.drawString(String.format("%.4g", shown[2]), 5, baseline);
+        g2d.drawString(density.getPointCount() + " points in view, up to " + density.getMaxCount()
+                       + " per pixel (log colour scale)", padding + 10, baseline + labelPadding + 10);
+        String hint = "Wheel: zoom, drag: pan, double-click: reset";
+        g2d.drawString(hint, padding + plotWidth - g2d.getFontMetrics().stringWidth(hint), baseline + labelPadding + 10);
+    }
+    
+    // Compute the scatter grid for a view (null = full extent) off the
+    // EDT. Only one worker runs at a time: views requested meanwhile (a
+    // zoom or pan in progress) are picked up by the repaint after it ends.
+    private void startScatterWorker(double[] view, int plotWidth, int plotHeight, int version) {
+        String xColumn = scatterXColumn;
+        String yColumn = scatterYColumn;
+        int[] cachedOrder = scatterOrderVersion == version ? scatterOrder : null;
+        double[] cachedExtent = cachedOrder != null ? scatterExtent : null;
+        scatterWorker = new SwingWorker<ScatterResult, Void>() {
+            @Override
+            protected ScatterResult doInBackground() {
+                NumericColumn x = dataSet.getNumericColumn(xColumn);
+                NumericColumn y = dataSet.getNumericColumn(yColumn);
+                ScatterResult result = new ScatterResult();
+                
+                int[] order = cachedOrder;
+                if (order == null || order.length != x.size()) {
+                    LoadMetrics.PhaseTimer sortTimer = dataSet.startPhase("scatter index");
+                    order = IndexSort.sort(x);
+                    sortTimer.stop(0, order.length);
+                }
+                result.order = order;
+                
+                // Non-NaN X values form a prefix of the order (NaN sorts last)
+                int valid = IndexSort.lowerBound(order, x, Double.NaN);
+                result.extent = cachedExtent != null && order == cachedOrder
+                    ? cachedExtent : scatterExtent(x, y, order, valid);
+                if (result.extent == null) return result;
+                
+                // Only rows whose X is in view are visited, found by binary
+                // search in the X-sorted row order
+                double[] v = view != null ? view : result.extent;
+                int from = IndexSort.lowerBound(order, x, v[0]);
+                int to = Math.min(valid, IndexSort.lowerBound(order, x, Math.nextUp(v[1])));
+                LoadMetrics.PhaseTimer aggregateTimer = dataSet.startPhase("scatter aggregate");
+                result.density = DensityGrid.compute(x, y, order, from, Math.max(from, to),
+                                                     v[0], v[1], v[2], v[3], plotWidth, plotHeight);
+                aggregateTimer.stop(0, Math.max(0, to - from));
+                result.image = result.density.toImage();
+                result.key = new double[]{v[0], v[1], v[2], v[3], plotWidth, plotHeight, version, x.size()};
+                return result;
+            }
+            
+            @Override
+            protected void done() {
+                if (scatterWorker != this) {
+                    return;  // Columns changed meanwhile
+                }
+                scatterWorker = null;
+                ScatterResult result;
+                try {
+                    result = get();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    scatterMessage = "Error: " + cause.getMessage();
+                    repaint();
+                    return;
+                }
+                if (result.order != scatterOrder) {
+                    scatterOrder = result.order;
+                    scatterOrderVersion = version;
+                    MemoryManager.get().register(ChartVisualizationPanel.this, "scatter",
+                        "scatter order by " + xColumn, MemoryManager.Kind.CACHE, 16 + result.order.length * 4L);
+                } else {
+                    MemoryManager.get().touch(ChartVisualizationPanel.this, "scatter");
+                }
+                if (result.extent == null) {
+                    scatterMessage = "No data to display";
+                } else {
+                    scatterExtent = result.extent;
+                    density = result.density;
+                    densityImage = result.image;
+                    densityKey = result.key;
+                }
+                repaint();
+            }
+        };
+        scatterWorker.execute();
+    }
+    
+    // What a scatter worker hands back to the EDT
+    private static final class ScatterResult {
+        private int[] order;
+        private double[] extent;
+        private DensityGrid density;
+        private BufferedImage image;
+        private double[] key;
+    }
+    
+    private static double[] scatterExtent(NumericColumn x, NumericColumn y, int[] order, int valid) {
+        if (valid == 0) return null;
+        double yMin = Double.POSITIVE_INFINITY;
+        double yMax = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < valid; i++) {
+            double value = y.get(order[i]);
+            if (value < yMin) yMin = value;
+            if (value > yMax) yMax = value;
+        }
+        if (yMin > yMax) return null;
+        double xMin = x.get(order[0]);
+        double xMax = x.get(order[valid - 1]);
+        double xMargin = xMax > xMin ? (xMax - xMin) * 0.02 : 0.5;
+        double yMargin = yMax > yMin ? (yMax - yMin) * 0.02 : 0.5;
+        return new double[]{xMin - xMargin, xMax + xMargin, yMin - yMargin, yMax + yMargin};
+    }
 }
@@ -0,0 +1,104 @@
+// ============================================================
+// File: ChunkedRowList.java
+// Purpose: Row list made of separately stored chunks (one per
+//          partition file) so loading never copies into one big list
+// ============================================================
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+public class ChunkedRowList extends AbstractList<List<String>> implements RandomAccess {
+    private List<List<List<String>>> chunks;
+    private int[] chunkStarts;
+    private int sealedRows;  // Rows in all chunks except the last
+
+    // Constructor
+    public ChunkedRowList() {
+        this.chunks = new ArrayList<>();
+        this.chunkStarts = new int[0];
+    }
+
+    // Append a whole chunk without copying its rows
+    public void addChunk(List<List<String>> chunk) {
+        if (!chunks.isEmpty()) {
+            sealedRows += chunks.get(chunks.size() - 1).size();
+        }
+        chunks.add(chunk);
+
+        int[] starts = new int[chunks.size()];
+        System.arraycopy(chunkStarts, 0, starts, 0, chunkStarts.length);
+        starts[chunks.size() - 1] = sealedRows;
+        chunkStarts = starts;
+        modCount++;
+    }
+
+    // Get number of chunks
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    // Get one chunk (live view, not a copy)
+    public List<List<String>> getChunk(int chunkIndex) {
+        return chunks.get(chunkIndex);
+    }
+
+    // Find the chunk holding a row (binary search on start offsets)
+    private int chunkOf(int index) {
+        int low = 0;
+        int high = chunkStarts.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (chunkStarts[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public List<String> get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Row " + index + " of " + size());
+        }
+        int chunk = chunkOf(index);
+        return chunks.get(chunk).get(index - chunkStarts[chunk]);
+    }
+
+    @Override
+    public List<String> set(int index, List<String> row) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Row " + index + " of " + size());
+        }
+        int chunk = chunkOf(index);
+        return chunks.get(chunk).set(index - chunkStarts[chunk], row);
+    }
+
+    // Single rows are appended to the last chunk
+    @Override
+    public boolean add(List<String> row) {
+        if (chunks.isEmpty()) {
+            addChunk(new ArrayList<>());
+        }
+        chunks.get(chunks.size() - 1).add(row);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        if (chunks.isEmpty()) return 0;
+        return sealedRows + chunks.get(chunks.size() - 1).size();
+    }
+
+    @Override
+    public void clear() {
+        chunks.clear();
+        chunkStarts = new int[0];
+        sealedRows = 0;
+        modCount++;
+    }
+}
@@ -0,0 +1,24 @@
+// ============================================================
+// File: ColumnFootprintEvent.java
+// Purpose: JFR event with the estimated heap size of one column
+// ============================================================
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("dataviz.ColumnFootprint")
+@Label("Column Footprint")
+@Category({"Data Visualization", "Memory"})
+public class ColumnFootprintEvent extends jdk.jfr.Event {
+    @Label("Source")
+    String source;
+
+    @Label("Column")
+    String column;
+
+    @Label("Estimated Heap")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,26 @@
+// ============================================================
+// File: ColumnStore.java
+// Purpose: Row storage that can hand out whole typed columns
+//          (implemented by lazy and off-heap backends of DataSet)
+// ============================================================
+
+import java.util.List;
+
+public interface ColumnStore {
+
+    // Get a column as text (materialized on first use)
+    List<String> getStringColumn(int column);
+
+    // Get a column as doubles, NaN where not numeric (materialized on first use)
+    double[] getDoubleColumn(int column);
+
+    // Get a column as doubles without copying it onto the heap if the
+    // store keeps it elsewhere (NaN where not numeric)
+    NumericColumn getNumericColumn(int column);
+
+    // Read one value without materializing its column
+    String peekValue(int row, int column);
+
+    // Estimate heap bytes currently held for a column
+    long estimateColumnBytes(int column);
+}
@@ -0,0 +1,164 @@
+// ============================================================
+// File: CorrelationHeatmapPanel.java
+// Purpose: Heatmap of the correlation/covariance matrix, computed in
+//          the background the first time the panel is shown
+// ============================================================
+
+import javax.swing.*;
+import java.awt.*;
+
+public class CorrelationHeatmapPanel extends JPanel {
+    private DataSet dataSet;
+    private CorrelationMatrix matrix;
+    private CorrelationMatrix.Method method = CorrelationMatrix.Method.PEARSON;
+    private SwingWorker<CorrelationMatrix, Void> worker;  // Latest computation (null = not started)
+    private String message = "Computing correlations...";  // Shown while there is no matrix
+    private boolean showCovariance;
+    private HeatmapCanvas canvas;
+
+    // Constructor
+    public CorrelationHeatmapPanel(DataSet dataSet) {
+        this.dataSet = dataSet;
+        setLayout(new BorderLayout());
+        setBackground(Color.WHITE);
+
+        // Control panel
+        JPanel controlPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controlPanel.setBackground(new Color(220, 220, 220));
+
+        controlPanel.add(new JLabel("Method:"));
+        JComboBox<CorrelationMatrix.Method> methodSelector = new JComboBox<>(CorrelationMatrix.Method.values());
+        methodSelector.addActionListener(e ->
+            computeMatrix((CorrelationMatrix.Method) methodSelector.getSelectedItem()));
+        controlPanel.add(methodSelector);
+
+        controlPanel.add(new JLabel("Show:"));
+        JComboBox<String> valueSelector = new JComboBox<>(new String[]{"Correlation", "Covariance"});
+        valueSelector.addActionListener(e -> {
+            showCovariance = valueSelector.getSelectedIndex() == 1;
+            canvas.repaint();
+        });
+        controlPanel.add(valueSelector);
+        add(controlPanel, BorderLayout.NORTH);
+
+        canvas = new HeatmapCanvas();
+        add(canvas, BorderLayout.CENTER);
+    }
+
+    // Compute the matrix the first time the panel is shown (every numeric
+    // column is read, so it is not done for panels never looked at)
+    public void computeIfNeeded() {
+        if (worker == null) {
+            computeMatrix(method);
+        }
+    }
+
+    // Recompute the matrix for the selected method off the EDT; results of
+    // an older request that finishes late are dropped
+    private void computeMatrix(CorrelationMatrix.Method newMethod) {
+        method = newMethod;
+        matrix = null;
+        message = "Computing correlations...";
+        canvas.repaint();
+        worker = new SwingWorker<CorrelationMatrix, Void>() {
+            @Override
+            protected CorrelationMatrix doInBackground() {
+                LoadMetrics.PhaseTimer statsTimer = dataSet.startPhase("stats");
+                CorrelationMatrix result = CorrelationMatrix.compute(dataSet, newMethod);
+                statsTimer.stop(0, dataSet.getRowCount());
+                return result;
+            }
+
+            @Override
+            protected void done() {
+                if (worker != this) return;
+                try {
+                    matrix = get();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    message = "Error computing correlations: " + cause.getMessage();
+                }
+                canvas.repaint();
+            }
+        };
+        worker.execute();
+    }
+
+    // Blue (-1) -> white (0) -> red (+1)
+    private static Color colorFor(double value) {
+        if (Double.isNaN(value)) return Color.LIGHT_GRAY;
+        double v = Math.max(-1.0, Math.min(1.0, value));
+        int fade = (int) (255 * (1.0 - Math.abs(v)));
+        return v >= 0 ? new Color(255, fade, fade) : new Color(fade, fade, 255);
+    }
+
+    // Drawing area for the matrix cells
+    private class HeatmapCanvas extends JPanel {
+        HeatmapCanvas() {
+            setBackground(Color.WHITE);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Graphics2D g2d = (Graphics2D) g;
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+            if (matrix == null) {
+                g2d.drawString(message, 20, getHeight() / 2);
+                return;
+            }
+            int k = matrix.size();
+            if (k == 0) {
+                g2d.drawString("No numeric columns to correlate", getWidth() / 2 - 90, getHeight() / 2);
+                return;
+            }
+
+            LoadMetrics.PhaseTimer renderTimer = dataSet.startPhase("render");
+            int labelWidth = 110;
+            int top = 40;
+            int cell = Math.max(4, Math.min((getWidth() - labelWidth - 20) / k, (getHeight() - top - 20) / k));
+            String[] names = matrix.getColumnNames();
+
+            // Covariance is coloured relative to the largest absolute value
+            double scale = 1.0;
+            if (showCovariance) {
+                scale = 0.0;
+                for (int i = 0; i < k; i++) {
+                    for (int j = 0; j < k; j++) {
+                        double cov = Math.abs(matrix.getCovariance(i, j));
+                        if (!Double.isNaN(cov)) scale = Math.max(scale, cov);
+                    }
+                }
+                if (scale == 0.0) scale = 1.0;
+            }
+
+            g2d.setFont(new Font("Arial", Font.PLAIN, 10));
+            for (int i = 0; i < k; i++) {
+                g2d.setColor(Color.BLACK);
+                g2d.drawString(names[i], 5, top + i * cell + cell / 2 + 4);
+                if (cell >= 30) {
+                    g2d.drawString(names[i], labelWidth + i * cell + 2, top - 5);
+                }
+
+                for (int j = 0; j < k; j++) {
+                    double value = showCovariance ? matrix.getCovariance(i, j) : matrix.getCorrelation(i, j);
+                    int x = labelWidth + j * cell;
+                    int y = top + i * cell;
+                    g2d.setColor(colorFor(value / scale));
+                    g2d.fillRect(x, y, cell, cell);
+                    g2d.setColor(Color.WHITE);
+                    g2d.drawRect(x, y, cell, cell);
+
+                    // Value label when cells are large enough
+                    if (cell >= 40) {
+                        g2d.setColor(Color.BLACK);
+                        String text = showCovariance ? String.format("%.3g", value) : String.format("%.2f", value);
+                        g2d.drawString(text, x + 4, y + cell / 2 + 4);
+                    }
+                }
+            }
+            renderTimer.stop(0, (long) k * k);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+// ============================================================
+// File: CorrelationMatrix.java
+// Purpose: Correlation and covariance of all numeric columns,
+//          computed in one blocked, parallel pass
+// ============================================================
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class CorrelationMatrix {
+    private static final int BLOCK_ROWS = 256;
+    private static final int MIN_ROWS_PER_TASK = 16_384;
+
+    // Correlation methods
+    public enum Method { PEARSON, SPEARMAN }
+
+    private String[] columnNames;
+    private Method method;
+    private double[][] correlation;
+    private double[][] covariance;
+    private long[][] pairCounts;
+
+    private CorrelationMatrix(String[] columnNames, Method method, int k) {
+        this.columnNames = columnNames;
+        this.method = method;
+        this.correlation = new double[k][k];
+        this.covariance = new double[k][k];
+        this.pairCounts = new long[k][k];
+    }
+
+    // Compute the matrix over every numeric column of a DataSet
+    public static CorrelationMatrix compute(DataSet dataSet, Method method) {
+        List<String> numeric = dataSet.getNumericColumns();
+        String[] names = numeric.toArray(new String[0]);
+        NumericColumn[] columns = new NumericColumn[names.length];
+        for (int c = 0; c < names.length; c++) {
+            columns[c] = dataSet.getNumericColumn(names[c]);
+        }
+        return compute(names, columns, method);
+    }
+
+    // Compute the matrix over equally long primitive columns; NaN values are
+    // skipped pairwise (each pair uses the rows where both are present)
+    public static CorrelationMatrix compute(String[] names, double[][] columns, Method method) {
+        NumericColumn[] wrapped = new NumericColumn[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            wrapped[c] = new ArrayNumericColumn(columns[c]);
+        }
+        return compute(names, wrapped, method);
+    }
+
+    // Compute over NumericColumns, read in place (Pearson) so off-heap
+    // columns are not copied; Spearman ranks are built on the heap
+    private static CorrelationMatrix compute(String[] names, NumericColumn[] columns, Method method) {
+        int k = columns.length;
+        int n = k == 0 ? 0 : columns[0].size();
+
+        NumericColumn[] input = columns;
+        if (method == Method.SPEARMAN) {
+            input = new NumericColumn[k];
+            for (int c = 0; c < k; c++) {
+                double[] values = new double[n];
+                for (int r = 0; r < n; r++) {
+                    values[r] = columns[c].get(r);
+                }
+                input[c] = new ArrayNumericColumn(ranks(values));
+            }
+        }
+
+        // Shift every column by its first finite value so the raw sums
+        // stay small and the one-pass formulas remain accurate
+        double[] shift = new double[k];
+        for (int c = 0; c < k; c++) {
+            for (int r = 0; r < n; r++) {
+                double v = input[c].get(r);
+                if (!Double.isNaN(v)) {
+                    shift[c] = v;
+                    break;
+                }
+            }
+        }
+
+        // Row ranges in parallel, merged by adding partial sums
+        final NumericColumn[] data = input;
+        int tasks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4,
+                                         n / MIN_ROWS_PER_TASK));
+        int rowsPerTask = (n + tasks - 1) / Math.max(1, tasks);
+        PartialSums total = IntStream.range(0, tasks).parallel()
+            .mapToObj(t -> accumulate(data, shift, t * rowsPerTask, Math.min(n, (t + 1) * rowsPerTask)))
+            .reduce(PartialSums::merge)
+            .orElse(new PartialSums(k));
+
+        CorrelationMatrix matrix = new CorrelationMatrix(names, method, k);
+        for (int i = 0; i < k; i++) {
+            for (int j = 0; j < k; j++) {
+                int ij = i * k + j;
+                int lo = Math.min(i, j) * k + Math.max(i, j);
+                double count = total.count[lo];
+                matrix.pairCounts[i][j] = (long) count;
+                if (count == 0) {
+                    matrix.covariance[i][j] = Double.NaN;
+                    matrix.correlation[i][j] = Double.NaN;
+                    continue;
+                }
+
+                // sum[i*k+j] = sum of column i over rows where i and j are both present
+                double sumI = total.sum[ij];
+                double sumJ = total.sum[j * k + i];
+                double varI = count * total.sumSquares[ij] - sumI * sumI;
+                double varJ = count * total.sumSquares[j * k + i] - sumJ * sumJ;
+                double cov = count * total.sumProducts[lo] - sumI * sumJ;
+
+                // Population covariance, same convention as StatisticsCalculator
+                matrix.covariance[i][j] = cov / (count * count);
+                matrix.correlation[i][j] = (varI <= 0 || varJ <= 0) ? Double.NaN
+                                         : Math.max(-1.0, Math.min(1.0, cov / Math.sqrt(varI * varJ)));
+            }
+        }
+        return matrix;
+    }
+
+    // Sums over one row range; rows are copied block by block into a small
+    // row-major buffer so the k x k update loop reads contiguous memory
+    private static PartialSums accumulate(NumericColumn[] columns, double[] shift, int from, int to) {
+        int k = columns.length;
+        PartialSums partial = new PartialSums(k);
+        double[] block = new double[BLOCK_ROWS * k];
+
+        for (int start = from; start < to; start += BLOCK_ROWS) {
+            int rows = Math.min(BLOCK_ROWS, to - start);
+
+            // Transpose the block (sequential reads per column)
+            for (int c = 0; c < k; c++) {
+                NumericColumn column = columns[c];
+                double s = shift[c];
+                for (int r = 0; r < rows; r++) {
+                    block[r * k + c] = column.get(start + r) - s;
+                }
+            }
+
+            for (int r = 0; r < rows; r++) {
+                int base = r * k;
+                for (int i = 0; i < k; i++) {
+                    double xi = block[base + i];
+                    if (Double.isNaN(xi)) continue;
+                    double xi2 = xi * xi;
+                    int rowI = i * k;
+                    for (int j = i; j < k; j++) {
+                        double xj = block[base + j];
+                        if (Double.isNaN(xj)) continue;
+                        partial.count[rowI + j]++;
+                        partial.sumProducts[rowI + j] += xi * xj;
+                        partial.sum[rowI + j] += xi;
+                        partial.sumSquares[rowI + j] += xi2;
+                        if (j != i) {
+                            int ji = j * k + i;
+                            partial.sum[ji] += xj;
+                            partial.sumSquares[ji] += xj * xj;
+                        }
+                    }
+                }
+            }
+        }
+        return partial;
+    }
+
+    // Average ranks (1-based, ties share their mean rank); NaN stays NaN
+    static double[] ranks(double[] values) {
+        double[] sorted = Arrays.stream(values).filter(v -> !Double.isNaN(v)).toArray();
+        Arrays.parallelSort(sorted);
+
+        double[] ranks = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            if (Double.isNaN(values[i])) {
+                ranks[i] = Double.NaN;
+                continue;
+            }
+            int first = lowerBound(sorted, values[i]);
+            int last = lowerBound(sorted, Math.nextUp(values[i])) - 1;
+            ranks[i] = (first + last) / 2.0 + 1.0;
+        }
+        return ranks;
+    }
+
+    // First index whose value is >= key
+    private static int lowerBound(double[] sorted, double key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Get column names in matrix order
+    public String[] getColumnNames() {
+        return columnNames.clone();
+    }
+
+    // Get method used for the correlation
+    public Method getMethod() {
+        return method;
+    }
+
+    // Get correlation of two columns (by matrix index)
+    public double getCorrelation(int i, int j) {
+        return correlation[i][j];
+    }
+
+    // Get population covariance of two columns (by matrix index)
+    public double getCovariance(int i, int j) {
+        return covariance[i][j];
+    }
+
+    // Get number of rows where both columns have values
+    public long getPairCount(int i, int j) {
+        return pairCounts[i][j];
+    }
+
+    // Get number of columns in the matrix
+    public int size() {
+        return columnNames.length;
+    }
+
+    // Get correlation matrix as formatted string
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("=== ").append(method).append(" correlation ===\n");
+        report.append(String.format("%-12s", ""));
+        for (String name : columnNames) {
+            report.append(String.format("%12.12s", name));
+        }
+        report.append("\n");
+        for (int i = 0; i < columnNames.length; i++) {
+            report.append(String.format("%-12.12s", columnNames[i]));
+            for (int j = 0; j < columnNames.length; j++) {
+                report.append(String.format("%12.3f", correlation[i][j]));
+            }
+            report.append("\n");
+        }
+        return report.toString();
+    }
+
+    // Mergeable sums for one row range (upper triangle for count/products)
+    private static class PartialSums {
+        int k;
+        double[] count;
+        double[] sum;
+        double[] sumSquares;
+        double[] sumProducts;
+
+        PartialSums(int k) {
+            this.k = k;
+            count = new double[k * k];
+            sum = new double[k * k];
+            sumSquares = new double[k * k];
+            sumProducts = new double[k * k];
+        }
+
+        PartialSums merge(PartialSums other) {
+            for (int i = 0; i < k * k; i++) {
+                count[i] += other.count[i];
+                sum[i] += other.sum[i];
+                sumSquares[i] += other.sumSquares[i];
+                sumProducts[i] += other.sumProducts[i];
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+// ============================================================
+// File: DataLoader.java
+// Purpose: Run the instrumented load pipeline (read -> DataSet)
+// ============================================================
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class DataLoader {
+
+    // Load a CSV file into a DataSet, recording each phase in a new
+    // LoadMetrics attached to the DataSet
+    public static DataSet load(String filePath) throws IOException {
+        LoadMetrics metrics = new LoadMetrics(filePath);
+
+        // Read + parse
+        CSVReader reader = new CSVReader(filePath);
+        reader.setMetrics(metrics);
+        List<String[]> csvData = reader.readCSV();
+
+        if (csvData.isEmpty()) {
+            throw new IOException("CSV file is empty");
+        }
+
+        // Build DataSet (first row is the header)
+        LoadMetrics.PhaseTimer buildTimer = metrics.startPhase("build");
+        DataSet dataSet = new DataSet();
+        dataSet.setLoadMetrics(metrics);
+        dataSet.setHeaders(csvData.get(0));
+        for (int i = 1; i < csvData.size(); i++) {
+            dataSet.addRow(csvData.get(i));
+        }
+        buildTimer.stop(0, dataSet.getRowCount());
+
+        // Type inference
+        LoadMetrics.PhaseTimer inferTimer = metrics.startPhase("inference");
+        dataSet.inferColumnTypes();
+        inferTimer.stop(0, dataSet.getRowCount());
+
+        recordFootprints(dataSet, metrics);
+        return dataSet;
+    }
+
+    // Load a CSV lazily: only row/field byte offsets are recorded now and
+    // each column is decoded when first read. Compressed files cannot be
+    // indexed in place, so they fall back to a regular load.
+    public static DataSet loadLazy(String filePath) throws IOException {
+        if (DecompressionPipeline.isCompressed(filePath)) {
+            return load(filePath);
+        }
+
+        LoadMetrics metrics = new LoadMetrics(filePath);
+
+        LoadMetrics.PhaseTimer indexTimer = metrics.startPhase("index");
+        LazyCSVIndex index = new LazyCSVIndex(filePath, ',');
+        indexTimer.stop(index.getFileSize(), index.getRowCount());
+
+        if (index.getRowCount() == 0) {
+            throw new IOException("CSV file is empty");
+        }
+
+        // Header row is decoded right away
+        String[] headers = new String[index.getFieldCount(0)];
+        byte[] scratch = new byte[256];
+        for (int c = 0; c < headers.length; c++) {
+            headers[c] = index.getField(0, c, scratch);
+        }
+        DataSet dataSet = new DataSet(headers, new LazyRowList(index, headers.length));
+        dataSet.setLoadMetrics(metrics);
+
+        LoadMetrics.PhaseTimer inferTimer = metrics.startPhase("inference");
+        dataSet.inferColumnTypes();
+        inferTimer.stop(0, dataSet.getRowCount());
+
+        metrics.recordColumnFootprint("(offset index)", index.estimateIndexBytes());
+        return dataSet;
+    }
+
+    // Load a CSV into off-heap column storage: rows are streamed from the
+    // tokenizer straight into memory-mapped files, so the data can be
+    // larger than the heap and adds nothing for the GC to trace
+    public static DataSet loadOffHeap(String filePath) throws IOException {
+        LoadMetrics metrics = new LoadMetrics(filePath);
+
+        OffHeapRowList rows;
+        String[] headers;
+        try (OffHeapRowList.Writer writer = new OffHeapRowList.Writer();
+             InputStream in = DecompressionPipeline.open(filePath, metrics)) {
+            LoadMetrics.PhaseTimer parseTimer = metrics.startPhase("parse");
+            new CSVTokenizer(',').tokenize(in, writer);
+            headers = writer.getHeaders();
+            if (headers == null) {
+                throw new IOException("CSV file is empty");
+            }
+            parseTimer.stop(new File(filePath).length(), 0);
+
+            LoadMetrics.PhaseTimer mapTimer = metrics.startPhase("map");
+            rows = writer.finish();
+            mapTimer.stop(rows.getOffHeapBytes(), rows.size());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        DataSet dataSet = new DataSet(headers, rows);
+        dataSet.setLoadMetrics(metrics);
+
+        LoadMetrics.PhaseTimer inferTimer = metrics.startPhase("inference");
+        dataSet.inferColumnTypes();
+        inferTimer.stop(0, dataSet.getRowCount());
+
+        metrics.recordColumnFootprint("(off-heap files)", rows.getOffHeapBytes());
+        return dataSet;
+    }
+
+    // Load every CSV (plain or compressed) in a directory as one DataSet
+    public static DataSet loadDirectory(String directoryPath) throws IOException {
+        File[] files = new File(directoryPath).listFiles((dir, name) -> isDataFileName(name));
+        if (files == null || files.length == 0) {
+            throw new IOException("No CSV files in directory: " + directoryPath);
+        }
+        Arrays.sort(files);
+
+        List<String> paths = new ArrayList<>();
+        for (File file : files) {
+            paths.add(file.getAbsolutePath());
+        }
+        return loadFiles(paths, directoryPath);
+    }
+
+    // Check whether a file name looks like loadable input
+    static boolean isDataFileName(String name) {
+        String lower = name.toLowerCase();
+        return lower.endsWith(".csv") || lower.endsWith(".csv.gz") || lower.endsWith(".zip")
+            || lower.endsWith(".deflate");
+    }
+
+    // Load several CSV partitions in parallel into one DataSet. Headers are
+    // reconciled by column name (first-seen order); a partition missing a
+    // column gets null values. Each partition is stored as its own chunk.
+    public static DataSet loadFiles(List<String> filePaths, String description) throws IOException {
+        LoadMetrics metrics = new LoadMetrics(description);
+        int threads = Math.max(1, Math.min(filePaths.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try {
+            // Read + parse every file in parallel
+            LoadMetrics.PhaseTimer parallelTimer = metrics.startPhase("read files");
+            List<Future<List<String[]>>> parsedFutures = new ArrayList<>();
+            for (String path : filePaths) {
+                parsedFutures.add(pool.submit(() -> {
+                    CSVReader reader = new CSVReader(path);
+                    reader.setMetrics(metrics);
+                    return reader.readCSV();
+                }));
+            }
+            List<List<String[]>> parsed = new ArrayList<>();
+            long totalRows = 0;
+            long totalBytes = 0;
+            for (int i = 0; i < parsedFutures.size(); i++) {
+                List<String[]> fileData = waitFor(parsedFutures.get(i));
+                parsed.add(fileData);
+                totalRows += fileData.size();
+                totalBytes += new File(filePaths.get(i)).length();
+            }
+            parallelTimer.stop(totalBytes, totalRows);
+
+            // Reconcile headers by column name
+            LoadMetrics.PhaseTimer buildTimer = metrics.startPhase("build");
+            Map<String, Integer> unified = new LinkedHashMap<>();
+            for (List<String[]> fileData : parsed) {
+                if (fileData.isEmpty()) continue;
+                for (String name : fileData.get(0)) {
+                    if (!unified.containsKey(name)) {
+                        unified.put(name, unified.size());
+                    }
+                }
+            }
+            if (unified.isEmpty()) {
+                throw new IOException("All CSV files are empty");
+            }
+
+            // Map each partition onto the unified columns, in parallel
+            List<Future<List<List<String>>>> chunkFutures = new ArrayList<>();
+            for (List<String[]> fileData : parsed) {
+                chunkFutures.add(pool.submit(() -> toChunk(fileData, unified)));
+            }
+
+            DataSet dataSet = new DataSet();
+            dataSet.setLoadMetrics(metrics);
+            dataSet.setHeaders(unified.keySet().toArray(new String[0]));
+            for (Future<List<List<String>>> future : chunkFutures) {
+                List<List<String>> chunk = waitFor(future);
+                if (!chunk.isEmpty()) {
+                    dataSet.addChunk(chunk);
+                }
+            }
+            buildTimer.stop(0, dataSet.getRowCount());
+
+            // Type inference
+            LoadMetrics.PhaseTimer inferTimer = metrics.startPhase("inference");
+            dataSet.inferColumnTypes();
+            inferTimer.stop(0, dataSet.getRowCount());
+
+            recordFootprints(dataSet, metrics);
+            return dataSet;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Convert one parsed file (header + rows) into a chunk in unified column order
+    private static List<List<String>> toChunk(List<String[]> fileData, Map<String, Integer> unified) {
+        List<List<String>> chunk = new ArrayList<>();
+        if (fileData.isEmpty()) return chunk;
+
+        String[] header = fileData.get(0);
+        int[] target = new int[header.length];
+        boolean identity = header.length == unified.size();
+        for (int i = 0; i < header.length; i++) {
+            target[i] = unified.get(header[i]);
+            identity &= target[i] == i;
+        }
+
+        for (int r = 1; r < fileData.size(); r++) {
+            String[] row = fileData.get(r);
+            if (identity) {
+                // Same layout: wrap the parsed array, no copy
+                chunk.add(Arrays.asList(row));
+            } else {
+                String[] mapped = new String[unified.size()];
+                for (int i = 0; i < header.length && i < row.length; i++) {
+                    mapped[target[i]] = row[i];
+                }
+                chunk.add(Arrays.asList(mapped));
+            }
+        }
+        return chunk;
+    }
+
+    // Wait for a task, unwrapping IOExceptions thrown inside it
+    private static <T> T waitFor(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Loading interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error loading file: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // Record estimated heap bytes of every column
+    static void recordFootprints(DataSet dataSet, LoadMetrics metrics) {
+        for (String columnName : dataSet.getColumnNames()) {
+            metrics.recordColumnFootprint(columnName, dataSet.estimateColumnBytes(columnName));
+        }
+    }
+
+    // Compute statistics of every numeric column (headless stats phase)
+    public static String computeAllStatistics(DataSet dataSet) {
+        StringBuilder report = new StringBuilder();
+        LoadMetrics.PhaseTimer statsTimer = dataSet.startPhase("stats");
+        for (String columnName : dataSet.getNumericColumns()) {
+            StatisticsCalculator calc = new StatisticsCalculator(
+                dataSet.getNumericColumn(columnName), columnName);
+            report.append(calc.getStatisticsReport()).append("\n");
+        }
+        statsTimer.stop(0, dataSet.getRowCount());
+        return report.toString();
+    }
+}
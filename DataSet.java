@@ -3,25 +3,47 @@
 // Purpose: Generic container for tabular data with columns and rows
 // ============================================================
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
-public class DataSet {
+public class DataSet implements MemoryManager.Evictable {
     private List<String> columnNames;
-    private List<List<String>> rows;
+    private volatile List<List<String>> rows;
     private Map<String, Integer> columnIndexMap;
+    private Set<String> numericColumns;
+    private boolean approximate;  // True for a preview sample of a larger file
+    private volatile int modifications;  // Bumped when existing rows are reordered or replaced
+    private volatile LoadMetrics loadMetrics;  // Metrics of the load that produced this DataSet
+    private final Map<Integer, double[]> numericCache = new HashMap<>();  // Parsed columns
+    
+    private static final int INFERENCE_SAMPLE_ROWS = 1000;
     
     // Constructor
     public DataSet() {
         this.columnNames = new ArrayList<>();
-        this.rows = new ArrayList<>();
+        this.rows = new ChunkedRowList();
         this.columnIndexMap = new HashMap<>();
+        this.numericColumns = new LinkedHashSet<>();
+    }
+    
+    // Constructor for alternative row storage (e.g. LazyRowList)
+    DataSet(String[] headers, List<List<String>> rows) {
+        this();
+        setHeaders(headers);
+        this.rows = rows;
     }
     
     // Set column headers
     public void setHeaders(String[] headers) {
+        invalidateCaches();
+        modifications++;
         columnNames.clear();
         columnIndexMap.clear();
         
@@ -37,9 +59,155 @@ public class DataSet {
         for (String value : rowData) {
             row.add(value);
         }
+        invalidateCaches();
         rows.add(row);
     }
     
+    // Add a block of rows (e.g. one partition file) as its own chunk;
+    // the rows are kept as given, not copied
+    public void addChunk(List<List<String>> chunkRows) {
+        if (!(rows instanceof ChunkedRowList)) {
+            throw new UnsupportedOperationException("DataSet storage does not accept chunks");
+        }
+        invalidateCaches();
+        ((ChunkedRowList) rows).addChunk(chunkRows);
+    }
+    
+    // Get a counter that changes whenever existing rows are reordered or
+    // replaced (appending rows does not change it), so caches built from
+    // a prefix of the rows know when they are stale
+    public int getModificationCount() {
+        return modifications;
+    }
+    
+    // Get number of stored chunks
+    public int getChunkCount() {
+        if (rows instanceof ChunkedRowList) {
+            return ((ChunkedRowList) rows).getChunkCount();
+        }
+        return 1;
+    }
+    
+    // Register the in-memory rows with the MemoryManager so the table can
+    // be spilled to disk if the memory budget runs out
+    public void trackMemory() {
+        if (rows instanceof ChunkedRowList) {
+            MemoryManager.get().register(this, "table", "table " + columnNames + " (" + rows.size() + " rows)",
+                                         MemoryManager.Kind.TABLE, estimateBytes());
+        }
+    }
+    
+    // Stop tracking this DataSet (and its row storage) once it is closed,
+    // and drop sorted copies kept for statistics
+    public void releaseMemory() {
+        MemoryManager.get().unregisterAll(this, "");
+        if (rows instanceof MemoryManager.Evictable) {
+            MemoryManager.get().unregisterAll((MemoryManager.Evictable) rows, "");
+        }
+        if (rows instanceof OffHeapRowList) {
+            ((OffHeapRowList) rows).releaseSortedValues();
+        }
+    }
+    
+    // Give up memory when the MemoryManager asks: drop a parsed column,
+    // or move all rows into off-heap files
+    @Override
+    public boolean evict(String part) {
+        if (part.startsWith("numeric:")) {
+            synchronized (numericCache) {
+                numericCache.remove(Integer.parseInt(part.substring("numeric:".length())));
+            }
+        } else if (part.equals("table")) {
+            return spillToDisk();
+        }
+        return true;
+    }
+    
+    // Rewrite in-memory rows into OffHeapRowList storage; returns false
+    // (rows kept on the heap, partial files deleted) if writing fails
+    private boolean spillToDisk() {
+        if (!(rows instanceof ChunkedRowList)) return true;
+        LoadMetrics.PhaseTimer spillTimer = startPhase("spill");
+        try (OffHeapRowList.Writer writer = new OffHeapRowList.Writer()) {
+            writer.row(columnNames.toArray(new String[0]));
+            for (List<String> row : rows) {
+                writer.row(row.toArray(new String[0]));
+            }
+            OffHeapRowList spilled = writer.finish();
+            invalidateCaches();
+            rows = spilled;
+            modifications++;
+            spillTimer.stop(spilled.getOffHeapBytes(), spilled.size());
+            return true;
+        } catch (IOException | java.io.UncheckedIOException e) {
+            MemoryManager.get().reportFailure("could not spill table to disk: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    // Drop parsed columns after the rows changed
+    private void invalidateCaches() {
+        synchronized (numericCache) {
+            if (numericCache.isEmpty()) return;
+            numericCache.clear();
+        }
+        MemoryManager.get().unregisterAll(this, "numeric:");
+    }
+    
+    // Parsed doubles of a row-stored column, cached until evicted or the
+    // rows change (callers must not modify the array)
+    private double[] cachedDoubles(int columnIndex) {
+        synchronized (numericCache) {
+            double[] cached = numericCache.get(columnIndex);
+            if (cached != null) {
+                MemoryManager.get().touch(this, "numeric:" + columnIndex);
+                return cached;
+            }
+        }
+        List<List<String>> currentRows = rows;
+        double[] values = new double[currentRows.size()];
+        for (int i = 0; i < values.length; i++) {
+            List<String> row = currentRows.get(i);
+            String value = columnIndex < row.size() ? row.get(columnIndex) : null;
+            values[i] = parseDoubleOrNaN(value);
+        }
+        synchronized (numericCache) {
+            numericCache.put(columnIndex, values);
+        }
+        MemoryManager.get().register(this, "numeric:" + columnIndex, "numbers of " + columnNames.get(columnIndex),
+                                     MemoryManager.Kind.CACHE, 16 + values.length * 8L);
+        return values;
+    }
+    
+    // Attach the metrics of the load that produced this DataSet; later
+    // phases on it (stats, sorts, spills, renders) are recorded there too
+    public void setLoadMetrics(LoadMetrics loadMetrics) {
+        this.loadMetrics = loadMetrics;
+        if (rows instanceof LazyRowList) {
+            ((LazyRowList) rows).setLoadMetrics(loadMetrics);
+        }
+    }
+    
+    // Get metrics of the load that produced this DataSet (null if none)
+    public LoadMetrics getLoadMetrics() {
+        return loadMetrics;
+    }
+    
+    // Start timing a phase in this DataSet's metrics (no-op without any)
+    public LoadMetrics.PhaseTimer startPhase(String phaseName) {
+        return LoadMetrics.startPhase(loadMetrics, phaseName);
+    }
+    
+    // Mark whether rows are only a sample (results are approximate)
+    public void setApproximate(boolean approximate) {
+        this.approximate = approximate;
+    }
+    
+    // Check whether rows are only a sample
+    public boolean isApproximate() {
+        return approximate;
+    }
+    
     // Get number of rows
     public int getRowCount() {
         return rows.size();
@@ -55,10 +223,13 @@ public class DataSet {
         return new ArrayList<>(columnNames);
     }
     
-    // Get value at specific row and column
+    // Get value at specific row and column (null when a reconciled
+    // partition did not have this column, "" past the end of a short row
+    // whatever the storage)
     public String getValue(int row, int column) {
         if (row >= 0 && row < rows.size() && column >= 0 && column < columnNames.size()) {
-            return rows.get(row).get(column);
+            List<String> rowData = rows.get(row);
+            return column < rowData.size() ? rowData.get(column) : "";
         }
         return "";
     }
@@ -81,11 +252,29 @@ public class DataSet {
         return new String[0];
     }
     
+    // Read-only view of the stored rows (no copy)
+    List<List<String>> rowsView() {
+        return java.util.Collections.unmodifiableList(rows);
+    }
+    
+    // Estimate heap bytes of the whole dataset (values plus row lists)
+    public long estimateBytes() {
+        long bytes = 0;
+        for (String columnName : columnNames) {
+            bytes += estimateColumnBytes(columnName);
+        }
+        return bytes + rows.size() * 40L;
+    }
+    
     // Get all values in a column
     public List<String> getColumn(String columnName) {
         List<String> columnData = new ArrayList<>();
         if (columnIndexMap.containsKey(columnName)) {
             int columnIndex = columnIndexMap.get(columnName);
+            if (rows instanceof ColumnStore) {
+                columnData.addAll(((ColumnStore) rows).getStringColumn(columnIndex));
+                return columnData;
+            }
             for (List<String> row : rows) {
                 if (columnIndex < row.size()) {
                     columnData.add(row.get(columnIndex));
@@ -98,19 +287,62 @@ public class DataSet {
     // Get column as numeric values (convert strings to doubles)
     public List<Double> getColumnAsNumbers(String columnName) {
         List<Double> numericData = new ArrayList<>();
-        List<String> stringData = getColumn(columnName);
-        
-        for (String value : stringData) {
-            try {
-                double numValue = Double.parseDouble(value);
-                numericData.add(numValue);
-            } catch (NumberFormatException e) {
-                // Skip non-numeric values
-            }
+        if (getColumnIndex(columnName) == -1) {
+            return numericData;
+        }
+        // Non-numeric values (NaN in the parsed column) are skipped
+        NumericColumn values = getNumericColumn(columnName);
+        for (int i = 0; i < values.size(); i++) {
+            double value = values.get(i);
+            if (!Double.isNaN(value)) numericData.add(value);
         }
         return numericData;
     }
     
+    // Get column as primitive doubles aligned with row numbers
+    // (NaN where a value is missing or not numeric)
+    public double[] getColumnAsDoubles(String columnName) {
+        int columnIndex = getColumnIndex(columnName);
+        if (rows instanceof ColumnStore && columnIndex != -1) {
+            return ((ColumnStore) rows).getDoubleColumn(columnIndex).clone();
+        }
+        if (columnIndex == -1) {
+            double[] missing = new double[rows.size()];
+            Arrays.fill(missing, Double.NaN);
+            return missing;
+        }
+        return cachedDoubles(columnIndex).clone();
+    }
+    
+    // Get column as a NumericColumn aligned with row numbers; off-heap
+    // storage is read in place, other storage is converted once
+    public NumericColumn getNumericColumn(String columnName) {
+        int columnIndex = getColumnIndex(columnName);
+        if (rows instanceof ColumnStore && columnIndex != -1) {
+            return ((ColumnStore) rows).getNumericColumn(columnIndex);
+        }
+        if (columnIndex == -1) {
+            return new ArrayNumericColumn(getColumnAsDoubles(columnName));
+        }
+        return new ArrayNumericColumn(cachedDoubles(columnIndex));
+    }
+    
+    // Parse a number, returning NaN for null or non-numeric text
+    static double parseDoubleOrNaN(String value) {
+        if (value == null || value.isEmpty()) return Double.NaN;
+        // Skip the exception path for text that cannot start a number
+        char first = value.charAt(0);
+        if (!(first >= '0' && first <= '9') && first != '-' && first != '+' && first != '.'
+                && first != 'N' && first != 'I') {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+    
     // Get all rows as 2D array
     public String[][] getAllData() {
         String[][] data = new String[rows.size()][];
@@ -134,7 +366,7 @@ public class DataSet {
         int columnIndex = getColumnIndex(columnName);
         if (columnIndex != -1) {
             for (List<String> row : rows) {
-                if (columnIndex < row.size() && row.get(columnIndex).equals(targetValue)) {
+                if (columnIndex < row.size() && Objects.equals(row.get(columnIndex), targetValue)) {
                     filtered.addRow(row.toArray(new String[0]));
                 }
             }
@@ -142,27 +374,125 @@ public class DataSet {
         return filtered;
     }
     
-    // Sort rows by numeric column
+    // Sort rows by a column: numbers in numeric order, then other text in
+    // text order, then missing values. Only numbers and text are reversed
+    // for a descending sort; missing values always stay last.
     public void sortByColumn(String columnName, boolean ascending) {
         int columnIndex = getColumnIndex(columnName);
         if (columnIndex == -1) return;
         
+        invalidateCaches();
+        modifications++;
         final int colIndex = columnIndex;
         final boolean asc = ascending;
         
         rows.sort((row1, row2) -> {
-            try {
-                double val1 = Double.parseDouble(row1.get(colIndex));
-                double val2 = Double.parseDouble(row2.get(colIndex));
-                
-                int result = Double.compare(val1, val2);
-                return asc ? result : -result;
-            } catch (NumberFormatException e) {
-                return 0;
-            }
+            String value1 = colIndex < row1.size() ? row1.get(colIndex) : null;
+            String value2 = colIndex < row2.size() ? row2.get(colIndex) : null;
+            return compareSortValues(value1, value2, asc);
         });
     }
     
+    // Total order used by sortByColumn (consistent for any mix of values)
+    static int compareSortValues(String value1, String value2, boolean ascending) {
+        int rank1 = sortRank(value1);
+        int rank2 = sortRank(value2);
+        if (rank1 != rank2) return Integer.compare(rank1, rank2);
+        int result;
+        if (rank1 == 0) {
+            result = Double.compare(Double.parseDouble(value1), Double.parseDouble(value2));
+        } else if (rank1 == 1) {
+            result = value1.compareTo(value2);
+        } else {
+            return 0;
+        }
+        return ascending ? result : -result;
+    }
+    
+    // 0 = number, 1 = other text, 2 = missing (null or empty)
+    private static int sortRank(String value) {
+        if (value == null || value.isEmpty()) return 2;
+        try {
+            Double.parseDouble(value);
+            return 0;
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+    
+    // Detect numeric columns: a column is numeric when most of its
+    // non-empty values parse as numbers
+    public void inferColumnTypes() {
+        numericColumns.clear();
+        for (int c = 0; c < columnNames.size(); c++) {
+            int numeric = 0;
+            int nonEmpty = 0;
+            for (int r = 0; r < rows.size(); r++) {
+                String value;
+                if (rows instanceof ColumnStore) {
+                    // Lazy storage: sample leading rows without materializing
+                    if (r >= INFERENCE_SAMPLE_ROWS) break;
+                    value = ((ColumnStore) rows).peekValue(r, c);
+                } else {
+                    List<String> row = rows.get(r);
+                    if (c >= row.size()) continue;
+                    value = row.get(c);
+                }
+                if (value == null || value.isEmpty()) continue;
+                nonEmpty++;
+                try {
+                    Double.parseDouble(value);
+                    numeric++;
+                } catch (NumberFormatException e) {
+                    // Not a number
+                }
+            }
+            if (numeric > 0 && numeric * 2 >= nonEmpty) {
+                numericColumns.add(columnNames.get(c));
+            }
+        }
+    }
+    
+    // Check whether a column was inferred as numeric
+    public boolean isNumericColumn(String columnName) {
+        return numericColumns.contains(columnName);
+    }
+    
+    // Get numeric columns in column order (empty until inferColumnTypes runs)
+    public List<String> getNumericColumns() {
+        return new ArrayList<>(numericColumns);
+    }
+    
+    // Estimate heap bytes held by one column's values (compressed oops)
+    public long estimateColumnBytes(String columnName) {
+        int columnIndex = getColumnIndex(columnName);
+        if (columnIndex == -1) return 0;
+        if (rows instanceof ColumnStore) {
+            return ((ColumnStore) rows).estimateColumnBytes(columnIndex);
+        }
+        
+        long bytes = 0;
+        for (List<String> row : rows) {
+            bytes += 4;  // Reference slot in the row list
+            if (columnIndex < row.size() && row.get(columnIndex) != null) {
+                bytes += estimateStringBytes(row.get(columnIndex));
+            }
+        }
+        return bytes;
+    }
+    
+    // String header + backing byte[] header + payload, 8-byte aligned
+    static long estimateStringBytes(String value) {
+        int payload = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                payload = value.length() * 2;  // UTF-16 instead of Latin-1
+                break;
+            }
+        }
+        return 24 + ((16 + payload + 7) & ~7L);
+    }
+    
     // Get data summary
     public String getSummary() {
         StringBuilder summary = new StringBuilder();
@@ -170,6 +500,9 @@ public class DataSet {
         summary.append("Rows: ").append(getRowCount()).append("\n");
         summary.append("Columns: ").append(getColumnCount()).append("\n");
         summary.append("Headers: ").append(columnNames).append("\n");
+        if (approximate) {
+            summary.append("Approximate: preview sample, not the full file\n");
+        }
         return summary.toString();
     }
 }
@@ -0,0 +1,452 @@
+// ============================================================
+// File: DataSetJoiner.java
+// Purpose: Hash join of two DataSets on one or more key columns
+// ============================================================
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class DataSetJoiner {
+    public static final long DEFAULT_MEMORY_BUDGET = 256L * 1024 * 1024;
+    private static final int MAX_SPILL_DEPTH = 3;  // Re-partitioning levels for skewed partitions
+
+    // Join types
+    public enum JoinType { INNER, LEFT }
+
+    private long memoryBudget;
+    private int threads;
+
+    // Constructor with default memory budget
+    public DataSetJoiner() {
+        this(DEFAULT_MEMORY_BUDGET);
+    }
+
+    // Constructor with memory budget (bytes) for the hash table side
+    public DataSetJoiner(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        this.threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    // Join left and right on matching key columns. Result columns are all
+    // left columns followed by the non-key right columns.
+    public DataSet join(DataSet left, DataSet right, String[] leftKeys, String[] rightKeys,
+                        JoinType type) throws IOException {
+        if (leftKeys.length == 0 || leftKeys.length != rightKeys.length) {
+            throw new IllegalArgumentException("Need the same number of left and right key columns");
+        }
+
+        Layout layout = new Layout(left, right, leftKeys, rightKeys);
+
+        // Build on the smaller side
+        boolean buildIsLeft = left.getRowCount() < right.getRowCount();
+        DataSet build = buildIsLeft ? left : right;
+        DataSet probe = buildIsLeft ? right : left;
+
+        DataSet result = new DataSet();
+        result.setLoadMetrics(new LoadMetrics("join on " + String.join(", ", leftKeys)));
+        result.setHeaders(layout.resultHeaders);
+
+        LoadMetrics.PhaseTimer timer = result.startPhase("join");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            if (build.estimateBytes() <= memoryBudget) {
+                for (List<List<String>> chunk : joinInMemory(build.rowsView(), probe.rowsView(),
+                                                            buildIsLeft, type, layout, pool)) {
+                    if (!chunk.isEmpty()) {
+                        result.addChunk(chunk);
+                    }
+                }
+            } else {
+                joinWithSpill(build, probe, buildIsLeft, type, layout, pool, result);
+            }
+        } finally {
+            pool.shutdownNow();
+            timer.stop(0, result.getRowCount());
+        }
+
+        result.inferColumnTypes();
+        return result;
+    }
+
+    // Classic hash join: hash the build rows, probe partitions in parallel
+    private List<List<List<String>>> joinInMemory(List<List<String>> buildRows, List<List<String>> probeRows,
+                                                  boolean buildIsLeft, JoinType type, Layout layout,
+                                                  ExecutorService pool) throws IOException {
+        int[] buildKeys = buildIsLeft ? layout.leftKeyIndexes : layout.rightKeyIndexes;
+        int[] probeKeys = buildIsLeft ? layout.rightKeyIndexes : layout.leftKeyIndexes;
+
+        // Hash table: key -> first build row, next[] chains rows with equal
+        // keys. Rows are inserted back to front so each chain is in file order.
+        Map<String, Integer> heads = new HashMap<>(Math.max(16, buildRows.size() * 4 / 3));
+        int[] next = new int[buildRows.size()];
+        for (int i = buildRows.size() - 1; i >= 0; i--) {
+            String key = layout.keyOf(buildRows.get(i), buildKeys);
+            if (key == null) continue;
+            Integer head = heads.put(key, i);
+            next[i] = head == null ? -1 : head;
+        }
+
+        // Left join built on the left side must remember matched left rows
+        boolean trackMatches = buildIsLeft && type == JoinType.LEFT;
+        boolean[] matched = trackMatches ? new boolean[buildRows.size()] : null;
+
+        int partitions = Math.max(1, Math.min(threads, probeRows.size() / 10_000 + 1));
+        int partitionSize = (probeRows.size() + partitions - 1) / partitions;
+        List<Future<List<List<String>>>> futures = new ArrayList<>();
+        for (int p = 0; p < partitions; p++) {
+            int from = p * partitionSize;
+            int to = Math.min(probeRows.size(), from + partitionSize);
+            futures.add(pool.submit(() -> {
+                List<List<String>> out = new ArrayList<>();
+                for (int r = from; r < to; r++) {
+                    List<String> probeRow = probeRows.get(r);
+                    String key = layout.keyOf(probeRow, probeKeys);
+                    Integer head = key == null ? null : heads.get(key);
+
+                    if (head == null) {
+                        if (!buildIsLeft && type == JoinType.LEFT) {
+                            out.add(layout.combine(probeRow, null));
+                        }
+                        continue;
+                    }
+                    for (int b = head; b != -1; b = next[b]) {
+                        if (trackMatches) {
+                            matched[b] = true;
+                        }
+                        out.add(buildIsLeft ? layout.combine(buildRows.get(b), probeRow)
+                                            : layout.combine(probeRow, buildRows.get(b)));
+                    }
+                }
+                return out;
+            }));
+        }
+
+        List<List<List<String>>> chunks = new ArrayList<>();
+        for (Future<List<List<String>>> future : futures) {
+            chunks.add(waitFor(future));
+        }
+
+        if (trackMatches) {
+            List<List<String>> unmatched = new ArrayList<>();
+            for (int i = 0; i < buildRows.size(); i++) {
+                if (!matched[i]) {
+                    unmatched.add(layout.combine(buildRows.get(i), null));
+                }
+            }
+            chunks.add(unmatched);
+        }
+        return chunks;
+    }
+
+    // Grace hash join: partition both sides to temp files by key hash so
+    // each build partition fits the budget, then join partition pairs
+    private void joinWithSpill(DataSet build, DataSet probe, boolean buildIsLeft, JoinType type,
+                               Layout layout, ExecutorService pool, DataSet result) throws IOException {
+        int partitions = partitionsFor(build.estimateBytes());
+        int[] buildKeys = buildIsLeft ? layout.leftKeyIndexes : layout.rightKeyIndexes;
+        int[] probeKeys = buildIsLeft ? layout.rightKeyIndexes : layout.leftKeyIndexes;
+        File[] buildFiles = null;
+        File[] probeFiles = null;
+        try {
+            buildFiles = spill(build.rowsView().iterator(), layout, buildKeys, partitions, 0, "build");
+            probeFiles = spill(probe.rowsView().iterator(), layout, probeKeys, partitions, 0, "probe");
+            for (int p = 0; p < partitions; p++) {
+                joinPartition(buildFiles[p], probeFiles[p], buildIsLeft, type, layout, pool, result, 1);
+            }
+        } finally {
+            deleteAll(buildFiles);
+            deleteAll(probeFiles);
+        }
+    }
+
+    // Join one partition pair. A build partition still over the budget
+    // (a skewed hash) is partitioned again with another hash seed, up to
+    // MAX_SPILL_DEPTH levels. Rows sharing one key always land together,
+    // so a single key holding most rows is still joined in memory.
+    private void joinPartition(File buildFile, File probeFile, boolean buildIsLeft, JoinType type,
+                               Layout layout, ExecutorService pool, DataSet result, int depth) throws IOException {
+        if (buildFile.length() > memoryBudget / 2 && depth <= MAX_SPILL_DEPTH) {
+            int[] buildKeys = buildIsLeft ? layout.leftKeyIndexes : layout.rightKeyIndexes;
+            int[] probeKeys = buildIsLeft ? layout.rightKeyIndexes : layout.leftKeyIndexes;
+            int partitions = partitionsFor(buildFile.length());
+            File[] buildFiles = null;
+            File[] probeFiles = null;
+            try (SpilledRows buildRows = new SpilledRows(buildFile);
+                 SpilledRows probeRows = new SpilledRows(probeFile)) {
+                buildFiles = spill(buildRows, layout, buildKeys, partitions, depth, "build");
+                probeFiles = spill(probeRows, layout, probeKeys, partitions, depth, "probe");
+                for (int p = 0; p < partitions; p++) {
+                    joinPartition(buildFiles[p], probeFiles[p], buildIsLeft, type, layout, pool, result, depth + 1);
+                }
+            } finally {
+                deleteAll(buildFiles);
+                deleteAll(probeFiles);
+            }
+            return;
+        }
+
+        List<List<String>> buildRows = readSpill(buildFile);
+        List<List<String>> probeRows = readSpill(probeFile);
+        for (List<List<String>> chunk : joinInMemory(buildRows, probeRows, buildIsLeft, type, layout, pool)) {
+            if (!chunk.isEmpty()) {
+                result.addChunk(chunk);
+            }
+        }
+    }
+
+    // Power of two partition count giving about half the budget each
+    private int partitionsFor(long bytes) {
+        int partitions = 2;
+        while (partitions < 4096 && bytes / partitions > memoryBudget / 2) {
+            partitions *= 2;
+        }
+        return partitions;
+    }
+
+    // Write rows to one temp file per hash partition (the seed changes
+    // the hash per level); rows with a null key go to partition 0 so left
+    // joins still emit them
+    private static File[] spill(Iterator<List<String>> rows, Layout layout, int[] keyIndexes, int partitions,
+                                int seed, String prefix) throws IOException {
+        File[] files = new File[partitions];
+        DataOutputStream[] outs = new DataOutputStream[partitions];
+        boolean written = false;
+        try {
+            for (int p = 0; p < partitions; p++) {
+                files[p] = File.createTempFile("join-" + prefix + "-" + p + "-", ".bin");
+                outs[p] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(files[p]), 64 * 1024));
+            }
+            while (rows.hasNext()) {
+                List<String> row = rows.next();
+                String key = layout.keyOf(row, keyIndexes);
+                int p = key == null ? 0 : (spread(key.hashCode() ^ seed * 0x9E3779B9) & (partitions - 1));
+                writeRow(outs[p], row);
+            }
+            written = true;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            for (DataOutputStream out : outs) {
+                if (out != null) out.close();
+            }
+            if (!written) {
+                deleteAll(files);
+            }
+        }
+        return files;
+    }
+
+    // Rows of a spill file, read one at a time
+    private static final class SpilledRows implements Iterator<List<String>>, Closeable {
+        private final DataInputStream in;
+        private String[] next;
+
+        SpilledRows(File file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+            next = readRow(in);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public List<String> next() {
+            List<String> row = Arrays.asList(next);
+            try {
+                next = readRow(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    // Binary row: field count, then per field -1 (null) or UTF-8 length + bytes
+    static void writeRow(DataOutputStream out, List<String> row) throws IOException {
+        out.writeInt(row.size());
+        for (String value : row) {
+            if (value == null) {
+                out.writeInt(-1);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    // Read a row written by writeRow (null at end of file)
+    static String[] readRow(DataInputStream in) throws IOException {
+        int fields;
+        try {
+            fields = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        String[] row = new String[fields];
+        for (int i = 0; i < fields; i++) {
+            int length = in.readInt();
+            if (length >= 0) {
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                row[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        return row;
+    }
+
+    private static List<List<String>> readSpill(File file) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+            String[] row;
+            while ((row = readRow(in)) != null) {
+                rows.add(Arrays.asList(row));
+            }
+        }
+        return rows;
+    }
+
+    private static void deleteAll(File[] files) {
+        if (files == null) return;
+        for (File file : files) {
+            if (file != null) file.delete();
+        }
+    }
+
+    // Mix hash bits so low bits are usable for partitioning
+    private static int spread(int hash) {
+        hash ^= (hash >>> 16);
+        hash *= 0x85ebca6b;
+        return hash ^ (hash >>> 13);
+    }
+
+    private static <T> T waitFor(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Join interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Join failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // Column layout of the join result
+    private static class Layout {
+        int[] leftKeyIndexes;
+        int[] rightKeyIndexes;
+        int leftColumnCount;
+        int[] rightOutputColumns;
+        String[] resultHeaders;
+        boolean[] numericKeys;  // Key pairs where both columns are numeric
+
+        Layout(DataSet left, DataSet right, String[] leftKeys, String[] rightKeys) {
+            leftKeyIndexes = indexesOf(left, leftKeys);
+            rightKeyIndexes = indexesOf(right, rightKeys);
+            numericKeys = new boolean[leftKeys.length];
+            for (int k = 0; k < leftKeys.length; k++) {
+                numericKeys[k] = left.isNumericColumn(leftKeys[k]) && right.isNumericColumn(rightKeys[k]);
+            }
+            leftColumnCount = left.getColumnCount();
+
+            List<String> headers = new ArrayList<>(left.getColumnNames());
+            List<Integer> rightColumns = new ArrayList<>();
+            List<String> rightNames = right.getColumnNames();
+            for (int c = 0; c < rightNames.size(); c++) {
+                final int column = c;
+                if (Arrays.stream(rightKeyIndexes).anyMatch(k -> k == column)) continue;
+
+                String name = rightNames.get(c);
+                if (headers.contains(name)) {
+                    name = name + " (right)";
+                }
+                headers.add(name);
+                rightColumns.add(c);
+            }
+
+            rightOutputColumns = new int[rightColumns.size()];
+            for (int i = 0; i < rightOutputColumns.length; i++) {
+                rightOutputColumns[i] = rightColumns.get(i);
+            }
+            resultHeaders = headers.toArray(new String[0]);
+        }
+
+        private static int[] indexesOf(DataSet dataSet, String[] columns) {
+            int[] indexes = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                indexes[i] = dataSet.getColumnIndex(columns[i]);
+                if (indexes[i] == -1) {
+                    throw new IllegalArgumentException("Unknown key column: " + columns[i]);
+                }
+            }
+            return indexes;
+        }
+
+        // Join key of a row (null if any key value is null or empty, so
+        // such rows never match). Numeric key pairs compare by value, so
+        // "1" matches "1.0"; composite keys are length-prefixed, so no two
+        // different key tuples give the same string.
+        String keyOf(List<String> row, int[] keyIndexes) {
+            if (keyIndexes.length == 1) {
+                return keyPart(row, keyIndexes[0], numericKeys[0]);
+            }
+            StringBuilder key = new StringBuilder();
+            for (int k = 0; k < keyIndexes.length; k++) {
+                String part = keyPart(row, keyIndexes[k], numericKeys[k]);
+                if (part == null) {
+                    return null;
+                }
+                key.append(part.length()).append(':').append(part);
+            }
+            return key.toString();
+        }
+
+        private static String keyPart(List<String> row, int column, boolean numeric) {
+            String value = column < row.size() ? row.get(column) : null;
+            if (value == null || value.isEmpty()) {
+                return null;
+            }
+            if (numeric) {
+                double number = DataSet.parseDoubleOrNaN(value);
+                if (!Double.isNaN(number)) {
+                    return Double.toString(number == 0 ? 0.0 : number);
+                }
+            }
+            return value;
+        }
+
+        // Result row from a left row and a (possibly missing) right row
+        List<String> combine(List<String> leftRow, List<String> rightRow) {
+            String[] out = new String[leftColumnCount + rightOutputColumns.length];
+            for (int c = 0; c < leftColumnCount && c < leftRow.size(); c++) {
+                out[c] = leftRow.get(c);
+            }
+            if (rightRow != null) {
+                for (int i = 0; i < rightOutputColumns.length; i++) {
+                    int c = rightOutputColumns[i];
+                    if (c < rightRow.size()) {
+                        out[leftColumnCount + i] = rightRow.get(c);
+                    }
+                }
+            }
+            return Arrays.asList(out);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+// ============================================================
+// File: DataSetTableModel.java
+// Purpose: JTable model reading cells straight from a DataSet
+//          (no copy of the data into a DefaultTableModel), with
+//          sorting and filtering through row-number permutations
+// ============================================================
+
+import javax.swing.table.AbstractTableModel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+public class DataSetTableModel extends AbstractTableModel implements MemoryManager.Evictable {
+    private DataSet dataSet;
+    private List<String> columnNames;
+
+    // Ascending row order per column, computed once and cached; a
+    // descending sort reads the same order back to front
+    private final Map<Integer, int[]> sortOrders = new HashMap<>();
+    private final Map<Integer, Integer> keyedRows = new HashMap<>();  // Rows with a key, per column
+
+    private int sortColumn = -1;     // -1 = file order
+    private boolean ascending = true;
+    private int[] sortOrder;         // Order of sortColumn (null = file order)
+    private int sortedValid;         // Rows of sortOrder that have a key; missing keys stay last
+
+    private int filterColumn = -1;   // -1 = all columns
+    private String filterText = "";
+    private boolean[] filterMatches; // Per DataSet row, kept while the filter is unchanged
+    private int[] filteredRows;      // Matching rows in view order (null = no filter)
+
+    // Constructor
+    public DataSetTableModel(DataSet dataSet) {
+        this.dataSet = dataSet;
+        this.columnNames = dataSet.getColumnNames();
+    }
+
+    @Override
+    public int getRowCount() {
+        return filteredRows != null ? filteredRows.length : dataSet.getRowCount();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames.get(column);
+    }
+
+    // Only cells being painted are requested, so lazy columns that are
+    // scrolled out of view are never decoded
+    @Override
+    public Object getValueAt(int row, int column) {
+        return dataSet.getValue(toModelRow(row), column);
+    }
+
+    // Map a table row to a DataSet row
+    public int toModelRow(int viewRow) {
+        return filteredRows != null ? filteredRows[viewRow] : sortedRow(viewRow);
+    }
+
+    // DataSet row at a position of the sorted (unfiltered) view
+    private int sortedRow(int position) {
+        if (sortOrder == null) return position;
+        if (!ascending && position < sortedValid) {
+            return sortOrder[sortedValid - 1 - position];
+        }
+        return sortOrder[position];
+    }
+
+    // Get column the view is sorted by (-1 for file order)
+    public int getSortColumn() {
+        return sortColumn;
+    }
+
+    // Get whether the sort is ascending
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    // Sort the view by a column using its ascendingOrder (column -1 and
+    // a null order restore file order); the filter is applied again to
+    // the new order
+    public void sortByColumn(int column, boolean ascending, int[] order) {
+        this.sortColumn = column;
+        this.ascending = ascending;
+        if (column < 0) {
+            sortOrder = null;
+        } else {
+            sortOrder = order;
+            synchronized (sortOrders) {
+                sortedValid = keyedRows.get(column);
+            }
+        }
+        applyFilter();
+    }
+
+    // Show only rows that passed matchRows(column, text); empty text
+    // shows every row
+    public void setFilter(int column, String text, boolean[] matches) {
+        this.filterColumn = column;
+        this.filterText = normalizeFilter(text);
+        this.filterMatches = filterText.isEmpty() ? null : matches;
+        applyFilter();
+    }
+
+    // Rows (in DataSet order) where the column, or any column for -1,
+    // contains the text, ignoring case; null for empty text. Reads only
+    // the DataSet, so it can run off the EDT. Each column is read once
+    // and tested in parallel; later columns skip rows already matched.
+    public boolean[] matchRows(int column, String text) {
+        String lowerCaseText = normalizeFilter(text);
+        if (lowerCaseText.isEmpty()) return null;
+        LoadMetrics.PhaseTimer filterTimer = dataSet.startPhase("table filter");
+        int rowCount = dataSet.getRowCount();
+        boolean[] matches = new boolean[rowCount];
+        int first = column >= 0 ? column : 0;
+        int last = column >= 0 ? column : columnNames.size() - 1;
+        for (int c = first; c <= last; c++) {
+            String[] values = columnValues(c);
+            IntStream.range(0, rowCount).parallel().forEach(row -> {
+                if (!matches[row]) matches[row] = contains(values[row], lowerCaseText);
+            });
+        }
+        filterTimer.stop(0, rowCount);
+        return matches;
+    }
+
+    private static String normalizeFilter(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // The mask is read in view order; a new sort reuses the mask without
+    // testing the rows again
+    private void applyFilter() {
+        if (filterMatches == null) {
+            filteredRows = null;
+        } else {
+            boolean[] matches = filterMatches;
+            filteredRows = IntStream.range(0, dataSet.getRowCount()).map(this::sortedRow)
+                .filter(row -> matches[row]).toArray();
+        }
+        fireTableDataChanged();
+    }
+
+    // Every value of a column, aligned with row numbers
+    private String[] columnValues(int column) {
+        String[] values = dataSet.getColumn(columnNames.get(column)).toArray(new String[0]);
+        if (values.length != dataSet.getRowCount()) {
+            // Short rows were skipped; read cell by cell to stay aligned
+            values = new String[dataSet.getRowCount()];
+            for (int row = 0; row < values.length; row++) {
+                values[row] = dataSet.getValue(row, column);
+            }
+        }
+        return values;
+    }
+
+    // Case-insensitive substring test without lower-casing every value
+    private static boolean contains(String value, String lowerCaseText) {
+        if (value == null) return false;
+        int last = value.length() - lowerCaseText.length();
+        for (int i = 0; i <= last; i++) {
+            if (value.regionMatches(true, i, lowerCaseText, 0, lowerCaseText.length())) return true;
+        }
+        return false;
+    }
+
+    // Cached ascending order of a column. Numeric columns compare parsed
+    // doubles and text columns compare strings; both are read into keys
+    // once, then sorted in parallel by IndexSort. Missing values go last.
+    // Reads only the DataSet, so it can run off the EDT.
+    public int[] ascendingOrder(int column) {
+        synchronized (sortOrders) {
+            int[] cached = sortOrders.get(column);
+            if (cached != null) {
+                MemoryManager.get().touch(this, "order:" + column);
+                return cached;
+            }
+        }
+
+        String name = columnNames.get(column);
+        LoadMetrics.PhaseTimer sortTimer = dataSet.startPhase("table sort");
+        int[] order;
+        int valid = 0;
+        if (dataSet.isNumericColumn(name)) {
+            NumericColumn keys = dataSet.getNumericColumn(name);
+            order = IndexSort.sort(keys);
+            valid = IndexSort.lowerBound(order, keys, Double.NaN);
+        } else {
+            String[] keys = columnValues(column);
+            for (String key : keys) {
+                if (key != null && !key.isEmpty()) valid++;
+            }
+            order = IndexSort.sort(keys);
+        }
+        sortTimer.stop(0, order.length);
+
+        synchronized (sortOrders) {
+            sortOrders.put(column, order);
+            keyedRows.put(column, valid);
+        }
+        MemoryManager.get().register(this, "order:" + column, "table order by " + name,
+                                     MemoryManager.Kind.CACHE, 16 + order.length * 4L);
+        return order;
+    }
+
+    // Drop a cached order when the MemoryManager asks (the order in use
+    // stays until the view is sorted by another column)
+    @Override
+    public boolean evict(String part) {
+        int column = Integer.parseInt(part.substring(part.indexOf(':') + 1));
+        synchronized (sortOrders) {
+            sortOrders.remove(column);
+        }
+        return true;
+    }
+
+    // Stop tracking cached orders (the table is being closed)
+    public void releaseMemory() {
+        MemoryManager.get().unregisterAll(this, "");
+    }
+}
@@ -1,16 +1,30 @@
 // ============================================================
 // File: DataTablePanel.java
-// Purpose: Display data in tabular format
+// Purpose: Display data in tabular format, with click-to-sort
+//          headers and a filter box
 // ============================================================
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.TableColumn;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 
 public class DataTablePanel extends JPanel {
     private DataSet dataSet;
+    private DataSetTableModel model;
     private JTable table;
     private JScrollPane scrollPane;
+    private JTextField filterField;
+    private JComboBox<String> filterColumnSelector;
+    private JLabel viewLabel;
+    private Timer filterTimer;  // Applies the filter shortly after typing stops
+    private SwingWorker<boolean[], Void> filterWorker;  // Latest filter being tested (null = idle)
+    private SwingWorker<int[], Void> sortWorker;        // Sort being computed (null = idle)
     
     // Constructor
     public DataTablePanel(DataSet dataSet) {
@@ -23,23 +37,190 @@ public class DataTablePanel extends JPanel {
         
         // Add table to panel
         add(scrollPane, BorderLayout.CENTER);
+        
+        JPanel northPanel = new JPanel(new BorderLayout());
+        northPanel.add(createFilterBar(), BorderLayout.CENTER);
+        
+        // Preview samples are flagged until the full load replaces them
+        if (dataSet.isApproximate()) {
+            JLabel notice = new JLabel(" Preview: " + dataSet.getRowCount()
+                + " randomly sampled rows. Loading the full file...");
+            notice.setOpaque(true);
+            notice.setBackground(new Color(255, 243, 205));
+            northPanel.add(notice, BorderLayout.NORTH);
+        }
+        add(northPanel, BorderLayout.NORTH);
     }
     
-    // Create and populate JTable
-    private void createTable() {
-        // Prepare table model
-        DefaultTableModel model = new DefaultTableModel();
+    // Stop tracking cached sort orders (the panel is being replaced)
+    public void releaseMemory() {
+        model.releaseMemory();
+    }
+    
+    // Filter text box, column choice and row count
+    private JPanel createFilterBar() {
+        JPanel filterBar = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
         
-        // Add column headers
+        filterField = new JTextField(20);
+        filterColumnSelector = new JComboBox<>();
+        filterColumnSelector.addItem("All columns");
         for (String columnName : dataSet.getColumnNames()) {
-            model.addColumn(columnName);
+            filterColumnSelector.addItem(columnName);
         }
+        viewLabel = new JLabel();
         
-        // Add rows
-        String[][] allData = dataSet.getAllData();
-        for (String[] row : allData) {
-            model.addRow(row);
+        filterTimer = new Timer(300, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                applyFilter();
+            }
+        });
+        filterTimer.setRepeats(false);
+        
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                filterTimer.restart();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                filterTimer.restart();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                filterTimer.restart();
+            }
+        });
+        filterField.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                filterTimer.stop();
+                applyFilter();
+            }
+        });
+        filterColumnSelector.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                applyFilter();
+            }
+        });
+        
+        JButton clearButton = new JButton("Clear");
+        clearButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                filterField.setText("");
+                filterTimer.stop();
+                applyFilter();
+            }
+        });
+        
+        filterBar.add(new JLabel("Filter:"));
+        filterBar.add(filterField);
+        filterBar.add(new JLabel("in"));
+        filterBar.add(filterColumnSelector);
+        filterBar.add(clearButton);
+        filterBar.add(viewLabel);
+        updateViewLabel(0);
+        return filterBar;
+    }
+    
+    // Apply the filter box to the table. Rows are tested off the EDT; a
+    // filter changed while one is still being tested replaces it.
+    private void applyFilter() {
+        int column = filterColumnSelector.getSelectedIndex() - 1;
+        String text = filterField.getText();
+        long start = System.nanoTime();
+        viewLabel.setText("Filtering...");
+        filterWorker = new SwingWorker<boolean[], Void>() {
+            @Override
+            protected boolean[] doInBackground() {
+                return model.matchRows(column, text);
+            }
+            
+            @Override
+            protected void done() {
+                if (filterWorker != this) {
+                    return;  // A newer filter replaced this one
+                }
+                filterWorker = null;
+                boolean[] matches;
+                try {
+                    matches = get();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    viewLabel.setText("Filter failed: " + cause.getMessage());
+                    return;
+                }
+                model.setFilter(column, text, matches);
+                updateViewLabel(System.nanoTime() - start);
+            }
+        };
+        filterWorker.execute();
+    }
+    
+    // Header click: sort ascending, then descending, then back to file
+    // order. A column's order is computed off the EDT the first time it
+    // is sorted by; clicks while that runs are ignored.
+    private void sortByHeader(int viewColumn) {
+        if (viewColumn < 0 || sortWorker != null) return;
+        int column = table.convertColumnIndexToModel(viewColumn);
+        boolean restart = model.getSortColumn() != column;
+        int sortColumn = restart || model.isAscending() ? column : -1;
+        boolean ascending = restart || sortColumn < 0;
+        long start = System.nanoTime();
+        viewLabel.setText("Sorting...");
+        sortWorker = new SwingWorker<int[], Void>() {
+            @Override
+            protected int[] doInBackground() {
+                return sortColumn < 0 ? null : model.ascendingOrder(sortColumn);
+            }
+            
+            @Override
+            protected void done() {
+                sortWorker = null;
+                int[] order;
+                try {
+                    order = get();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    viewLabel.setText("Sort failed: " + cause.getMessage());
+                    return;
+                }
+                model.sortByColumn(sortColumn, ascending, order);
+                updateHeaders();
+                updateViewLabel(System.nanoTime() - start);
+            }
+        };
+        sortWorker.execute();
+    }
+    
+    // Arrow on the sorted column's header
+    private void updateHeaders() {
+        for (int i = 0; i < table.getColumnCount(); i++) {
+            TableColumn tableColumn = table.getColumnModel().getColumn(i);
+            int modelColumn = tableColumn.getModelIndex();
+            String arrow = modelColumn != model.getSortColumn() ? "" : model.isAscending() ? " \u25B2" : " \u25BC";
+            tableColumn.setHeaderValue(model.getColumnName(modelColumn) + arrow);
         }
+        table.getTableHeader().repaint();
+    }
+    
+    // Show visible row count and how long the last sort/filter took
+    private void updateViewLabel(long nanos) {
+        String text = model.getRowCount() + " of " + dataSet.getRowCount() + " rows";
+        if (nanos > 0) {
+            text += String.format(" (%.0f ms)", nanos / 1e6);
+        }
+        viewLabel.setText(text);
+    }
+    
+    // Create and populate JTable
+    private void createTable() {
+        // Prepare table model (reads cells from the DataSet on demand)
+        model = new DataSetTableModel(dataSet);
         
         // Create table
         table = new JTable(model);
@@ -47,11 +228,25 @@ public class DataTablePanel extends JPanel {
         table.setGridColor(new Color(200, 200, 200));
         table.setRowHeight(25);
         
+        // Wide files scroll horizontally so only visible columns are read
+        if (dataSet.getColumnCount() > 20) {
+            table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        }
+        
         // Header styling
         table.getTableHeader().setBackground(new Color(70, 130, 180));
         table.getTableHeader().setForeground(Color.WHITE);
         table.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
         
+        // Click a header to sort by it (rows are not moved; the model
+        // reads them through a cached permutation)
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                sortByHeader(table.columnAtPoint(e.getPoint()));
+            }
+        });
+        
         // Add scroll pane
         scrollPane = new JScrollPane(table);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
@@ -0,0 +1,297 @@
+// ============================================================
+// File: DecompressionPipeline.java
+// Purpose: Decompress gzip/deflate/zip input on a background thread
+//          and hand byte blocks to the parser through a bounded queue
+// ============================================================
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class DecompressionPipeline extends InputStream {
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final int QUEUE_CAPACITY = 16;
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    private final BlockingQueue<byte[]> queue;
+    private final Thread producer;
+    private volatile IOException failure;
+    private volatile boolean closed;
+    private int lastQueuedByte = -1;
+
+    private byte[] current;
+    private int position;
+    private boolean finished;
+
+    // Open a file for reading; compressed files are decompressed on a
+    // pipeline thread, plain files are read directly
+    public static InputStream open(String filePath, LoadMetrics metrics) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(new FileInputStream(filePath), BLOCK_SIZE);
+        Format format = detectFormat(in, filePath);
+        if (format == Format.PLAIN) {
+            return in;
+        }
+        return new DecompressionPipeline(in, format, filePath, metrics);
+    }
+
+    // Check whether a file would be decompressed by open()
+    public static boolean isCompressed(String filePath) throws IOException {
+        try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(filePath))) {
+            return detectFormat(in, filePath) != Format.PLAIN;
+        }
+    }
+
+    // Supported input formats
+    enum Format { PLAIN, GZIP, ZLIB, RAW_DEFLATE, ZIP }
+
+    // Detect format from magic bytes, falling back to the file extension
+    static Format detectFormat(BufferedInputStream in, String filePath) throws IOException {
+        in.mark(4);
+        int b0 = in.read();
+        int b1 = in.read();
+        int b2 = in.read();
+        int b3 = in.read();
+        in.reset();
+
+        if (b0 == 0x1f && b1 == 0x8b) {
+            return Format.GZIP;
+        }
+        if (b0 == 'P' && b1 == 'K' && b2 == 3 && b3 == 4) {
+            return Format.ZIP;
+        }
+        // zlib: deflate method, valid header checksum and no preset
+        // dictionary. Text can pass that check too ("x " is 0x7820), so
+        // without a .zz/.zlib name only the usual 0x78 headers of levels
+        // 1, 6 and 9 are trusted ("x^", level 2-5, is left as text).
+        String name = filePath.toLowerCase();
+        boolean zlibName = name.endsWith(".zz") || name.endsWith(".zlib");
+        boolean zlibHeader = (b0 & 0x0F) == 8 && b1 >= 0 && ((b0 << 8) | b1) % 31 == 0 && (b1 & 0x20) == 0;
+        if (zlibHeader && (zlibName || (b0 == 0x78 && (b1 == 0x01 || b1 == 0x9C || b1 == 0xDA)))) {
+            return Format.ZLIB;
+        }
+
+        if (name.endsWith(".deflate")) {
+            return Format.RAW_DEFLATE;
+        }
+        return Format.PLAIN;
+    }
+
+    // Constructor: starts the decompression thread
+    private DecompressionPipeline(InputStream compressed, Format format, String filePath, LoadMetrics metrics) {
+        this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.producer = new Thread(() -> produce(compressed, format, filePath, metrics),
+                                   "decompress-" + new File(filePath).getName());
+        this.producer.setDaemon(true);
+        this.producer.start();
+    }
+
+    // Pipeline thread: decompress into blocks and queue them
+    private void produce(InputStream compressed, Format format, String filePath, LoadMetrics metrics) {
+        LoadMetrics.PhaseTimer timer = metrics != null ? metrics.startPhase("decompress") : null;
+        long produced = 0;
+        try (InputStream source = compressed) {
+            if (format == Format.ZIP) {
+                produced = produceZipEntries(new ZipInputStream(source));
+            } else {
+                InputStream in;
+                if (format == Format.GZIP) {
+                    in = new GZIPInputStream(source, BLOCK_SIZE);
+                } else if (format == Format.ZLIB) {
+                    in = new InflaterInputStream(source, new Inflater(), BLOCK_SIZE);
+                } else {
+                    in = new InflaterInputStream(source, new Inflater(true), BLOCK_SIZE);
+                }
+                produced = produceBlocks(in);
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            // Reader closed the pipeline early
+        } catch (RuntimeException | Error e) {
+            // Inflater and ZipInputStream report some corrupt input this
+            // way; it must fail the read, not look like a clean end
+            failure = new IOException("Could not decompress " + filePath + ": " + e, e);
+        } finally {
+            if (timer != null) {
+                timer.stop(produced, 0);
+            }
+            try {
+                put(END_OF_STREAM);
+            } catch (InterruptedException e) {
+                // Reader is gone
+            }
+        }
+    }
+
+    // Concatenate the .csv entries of a zip bundle; each later entry must
+    // start with the first entry's header, which is dropped. An entry
+    // with a different header is rejected rather than read as data.
+    private long produceZipEntries(ZipInputStream zip) throws IOException, InterruptedException {
+        long produced = 0;
+        byte[] firstHeader = null;
+        ZipEntry entry;
+        while (!closed && (entry = zip.getNextEntry()) != null) {
+            if (entry.isDirectory() || !entry.getName().toLowerCase().endsWith(".csv")) {
+                continue;
+            }
+
+            byte[] header = readLine(zip);
+            if (header.length == 0) {
+                continue;  // Empty entry
+            }
+            if (firstHeader == null) {
+                firstHeader = header;
+                produced += emit(header);
+            } else if (!sameLine(firstHeader, header)) {
+                throw new IOException("Zip entry " + entry.getName()
+                    + " has a different header than the first entry: "
+                    + new String(header, 0, lineLength(header), StandardCharsets.UTF_8));
+            }
+
+            produced += produceBlocks(zip);
+            if (lastQueuedByte != -1 && lastQueuedByte != '\n') {
+                produced += emit(new byte[]{'\n'});
+            }
+        }
+        return produced;
+    }
+
+    // Copy a stream into queued blocks
+    private long produceBlocks(InputStream in) throws IOException, InterruptedException {
+        long produced = 0;
+        while (!closed) {
+            byte[] block = new byte[BLOCK_SIZE];
+            int filled = 0;
+            int n;
+            while (filled < BLOCK_SIZE && (n = in.read(block, filled, BLOCK_SIZE - filled)) > 0) {
+                filled += n;
+            }
+            if (filled == 0) break;
+
+            if (filled < BLOCK_SIZE) {
+                byte[] trimmed = new byte[filled];
+                System.arraycopy(block, 0, trimmed, 0, filled);
+                block = trimmed;
+            }
+            put(block);
+            produced += filled;
+        }
+        return produced;
+    }
+
+    // Read one line including its newline (empty array at end of entry)
+    private static byte[] readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            line.write(b);
+            if (b == '\n') break;
+        }
+        return line.toByteArray();
+    }
+
+    // Compare two header lines ignoring line terminators
+    private static boolean sameLine(byte[] a, byte[] b) {
+        int lenA = lineLength(a);
+        int lenB = lineLength(b);
+        if (lenA != lenB) return false;
+        for (int i = 0; i < lenA; i++) {
+            if (a[i] != b[i]) return false;
+        }
+        return true;
+    }
+
+    private static int lineLength(byte[] line) {
+        int len = line.length;
+        while (len > 0 && (line[len - 1] == '\n' || line[len - 1] == '\r')) {
+            len--;
+        }
+        return len;
+    }
+
+    private long emit(byte[] bytes) throws InterruptedException {
+        if (bytes.length > 0) {
+            put(bytes);
+        }
+        return bytes.length;
+    }
+
+    // Queue a block, giving up if the reader closed the pipeline
+    private void put(byte[] block) throws InterruptedException {
+        if (block.length > 0) {
+            lastQueuedByte = block[block.length - 1];
+        }
+        while (!queue.offer(block, 100, TimeUnit.MILLISECONDS)) {
+            if (closed) {
+                throw new InterruptedException("Pipeline closed");
+            }
+        }
+    }
+
+    // Take the next block from the queue (false at end of stream)
+    private boolean nextBlock() throws IOException {
+        if (finished) return false;
+        try {
+            current = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for decompressed data");
+        }
+        position = 0;
+        if (current == END_OF_STREAM) {
+            finished = true;
+            if (failure != null) {
+                throw failure;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (current == null || position >= current.length) {
+            if (!nextBlock()) return -1;
+        }
+        return current[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        if (current == null || position >= current.length) {
+            if (!nextBlock()) return -1;
+        }
+        int n = Math.min(length, current.length - position);
+        System.arraycopy(current, position, buffer, offset, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current == null ? 0 : current.length - position;
+    }
+
+    // Stop the pipeline thread and wait for it, so nothing keeps
+    // decompressing once the reader is gone
+    @Override
+    public void close() {
+        closed = true;
+        producer.interrupt();
+        queue.clear();
+        try {
+            producer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        queue.clear();
+    }
+}
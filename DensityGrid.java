@@ -0,0 +1,136 @@
+// ============================================================
+// File: DensityGrid.java
+// Purpose: Parallel per-pixel count grid of X/Y points for scatter
+//          plots, drawn as an image with a log-scaled colour ramp
+// ============================================================
+
+import java.awt.image.BufferedImage;
+import java.util.stream.IntStream;
+
+public class DensityGrid {
+    private static final int MIN_POINTS_PER_TASK = 65_536;
+
+    private final int width;
+    private final int height;
+    private final int[] counts;  // Row-major, row 0 at the top (highest Y)
+    private final int maxCount;
+    private final long points;   // Points that fell inside the view
+
+    private DensityGrid(int width, int height, int[] counts, long points) {
+        this.width = width;
+        this.height = height;
+        this.counts = counts;
+        this.points = points;
+        int max = 0;
+        for (int count : counts) {
+            if (count > max) max = count;
+        }
+        this.maxCount = max;
+    }
+
+    // Count the rows order[from, to) into a width x height grid spanning
+    // [xMin, xMax] x [yMin, yMax]. Every task fills its own grid; grids
+    // are added together at the end.
+    public static DensityGrid compute(NumericColumn x, NumericColumn y, int[] order, int from, int to,
+                                      double xMin, double xMax, double yMin, double yMax,
+                                      int width, int height) {
+        final double xScale = width / (xMax - xMin);
+        final double yScale = height / (yMax - yMin);
+        final int cells = width * height;
+        int tasks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                                         (to - from) / MIN_POINTS_PER_TASK));
+        int perTask = (to - from + tasks - 1) / tasks;
+
+        long[] inView = new long[tasks];
+        int[] counts = IntStream.range(0, tasks).parallel()
+            .mapToObj(t -> {
+                int[] local = new int[cells];
+                int end = Math.min(to, from + (t + 1) * perTask);
+                long hits = 0;
+                for (int i = from + t * perTask; i < end; i++) {
+                    int row = order[i];
+                    double px = (x.get(row) - xMin) * xScale;
+                    double py = (yMax - y.get(row)) * yScale;
+                    // NaN fails both comparisons and is skipped too
+                    if (!(px >= 0 && px <= width && py >= 0 && py <= height)) continue;
+                    int cx = Math.min(width - 1, (int) px);
+                    int cy = Math.min(height - 1, (int) py);
+                    local[cy * width + cx]++;
+                    hits++;
+                }
+                inView[t] = hits;
+                return local;
+            })
+            .reduce((a, b) -> {
+                for (int i = 0; i < a.length; i++) a[i] += b[i];
+                return a;
+            })
+            .orElse(new int[cells]);
+
+        long points = 0;
+        for (long hits : inView) {
+            points += hits;
+        }
+        return new DensityGrid(width, height, counts, points);
+    }
+
+    // Get grid width in pixels
+    public int getWidth() {
+        return width;
+    }
+
+    // Get grid height in pixels
+    public int getHeight() {
+        return height;
+    }
+
+    // Get count at a pixel (row 0 at the top)
+    public int getCount(int px, int py) {
+        return counts[py * width + px];
+    }
+
+    // Get largest pixel count
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    // Get number of points inside the view
+    public long getPointCount() {
+        return points;
+    }
+
+    // Render counts as an image: empty pixels transparent, the rest on a
+    // light blue to dark red ramp by log(count) / log(max)
+    public BufferedImage toImage() {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] palette = palette();
+        double scale = maxCount > 1 ? (palette.length - 1) / Math.log(maxCount) : 0;
+        int[] pixels = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            int count = counts[i];
+            if (count > 0) {
+                pixels[i] = palette[(int) (Math.log(count) * scale)];
+            }
+        }
+        image.setRGB(0, 0, width, height, pixels, 0, width);
+        return image;
+    }
+
+    // 256 ARGB colours interpolated through a few stops
+    private static int[] palette() {
+        int[][] stops = {
+            {160, 200, 255}, {30, 100, 220}, {0, 170, 120}, {250, 200, 0}, {220, 40, 30}, {120, 0, 20}
+        };
+        int[] palette = new int[256];
+        for (int i = 0; i < palette.length; i++) {
+            double position = i / 255.0 * (stops.length - 1);
+            int stop = Math.min(stops.length - 2, (int) position);
+            double f = position - stop;
+            int r = (int) (stops[stop][0] + f * (stops[stop + 1][0] - stops[stop][0]));
+            int g = (int) (stops[stop][1] + f * (stops[stop + 1][1] - stops[stop][1]));
+            int b = (int) (stops[stop][2] + f * (stops[stop + 1][2] - stops[stop][2]));
+            palette[i] = 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+        return palette;
+    }
+}
@@ -0,0 +1,48 @@
+// ============================================================
+// File: DiagnosticsPanel.java
+// Purpose: Display load pipeline metrics of the DataSet on screen
+// ============================================================
+
+import javax.swing.*;
+import java.awt.*;
+
+public class DiagnosticsPanel extends JPanel {
+    private DataSet dataSet;
+    private JTextArea metricsText;
+
+    // Constructor
+    public DiagnosticsPanel(DataSet dataSet) {
+        this.dataSet = dataSet;
+        setLayout(new BorderLayout());
+        setBackground(Color.WHITE);
+
+        // Control panel with refresh button
+        JPanel controlPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controlPanel.setBackground(new Color(220, 220, 220));
+        JButton refreshButton = new JButton("Refresh");
+        refreshButton.addActionListener(e -> refresh());
+        controlPanel.add(refreshButton);
+        add(controlPanel, BorderLayout.NORTH);
+
+        // Metrics display area
+        metricsText = new JTextArea();
+        metricsText.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        metricsText.setEditable(false);
+        metricsText.setBackground(new Color(240, 240, 240));
+        metricsText.setMargin(new Insets(10, 10, 10, 10));
+        add(new JScrollPane(metricsText), BorderLayout.CENTER);
+
+        refresh();
+    }
+
+    // Show current metrics (stats and render phases keep accumulating)
+    public void refresh() {
+        LoadMetrics metrics = dataSet.getLoadMetrics();
+        String memoryReport = MemoryManager.get().getReport();
+        if (metrics == null) {
+            metricsText.setText("No load recorded for this data\n\n" + memoryReport);
+            return;
+        }
+        metricsText.setText(metrics.getReport() + "\n" + memoryReport);
+    }
+}
@@ -0,0 +1,428 @@
+// ============================================================
+// File: ExternalSorter.java
+// Purpose: Sort a CSV file of any size by one column: memory-budgeted
+//          runs sorted in parallel and spilled to temp files, then
+//          k-way merged with a priority queue
+// ============================================================
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+public class ExternalSorter {
+    public static final long DEFAULT_MEMORY_BUDGET = 256L * 1024 * 1024;
+    private static final int MAX_FAN_IN = 64;
+    private static final int IO_BUFFER = 64 * 1024;
+
+    private String columnName;
+    private boolean ascending;
+    private long memoryBudget;
+    private int threads;
+    private String[] header;  // Input header, set while writing runs
+    private int keyIndex;
+    private LoadMetrics metrics;  // Metrics of the last sort
+
+    // Constructor with default memory budget (capped at a third of the heap)
+    public ExternalSorter(String columnName, boolean ascending) {
+        this(columnName, ascending, Math.min(DEFAULT_MEMORY_BUDGET, Runtime.getRuntime().maxMemory() / 3));
+    }
+
+    // Constructor with memory budget (bytes) for all rows held at once
+    public ExternalSorter(String columnName, boolean ascending, long memoryBudget) {
+        this.columnName = columnName;
+        this.ascending = ascending;
+        this.memoryBudget = memoryBudget;
+        this.threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    // Get metrics of the last sort (null before sorting)
+    public LoadMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Sort a CSV (plain or compressed) and return its rows in order; the
+    // caller must close the result to delete the run files
+    public SortedRows sort(String inputPath) throws IOException {
+        metrics = new LoadMetrics("sort " + inputPath);
+        List<File> runs = writeRuns(inputPath, metrics);
+        try {
+            LoadMetrics.PhaseTimer mergeTimer = metrics.startPhase("merge passes");
+            runs = mergeDown(runs);
+            mergeTimer.stop();
+            return new SortedRows(header, runs, keyIndex, ascending);
+        } catch (IOException | RuntimeException e) {
+            deleteAll(runs);
+            throw e;
+        }
+    }
+
+    // Sort a CSV into a file: binary rows (DataSetJoiner.writeRow format,
+    // header first) if the name ends in ".bin", CSV otherwise
+    public void sortToFile(String inputPath, String outputPath) throws IOException {
+        boolean binary = outputPath.toLowerCase().endsWith(".bin");
+        try (SortedRows rows = sort(inputPath)) {
+            LoadMetrics.PhaseTimer writeTimer = metrics.startPhase("merge");
+            long count = 0;
+            if (binary) {
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(outputPath), IO_BUFFER))) {
+                    DataSetJoiner.writeRow(out, Arrays.asList(rows.getHeaders()));
+                    while (rows.hasNext()) {
+                        DataSetJoiner.writeRow(out, Arrays.asList(rows.next()));
+                        count++;
+                    }
+                }
+            } else {
+                try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(outputPath), StandardCharsets.UTF_8), IO_BUFFER)) {
+                    writeCsvRow(out, rows.getHeaders());
+                    while (rows.hasNext()) {
+                        writeCsvRow(out, rows.next());
+                        count++;
+                    }
+                }
+            }
+            writeTimer.stop(new File(outputPath).length(), count);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Write one CSV line, quoting fields that would not read back as is
+    static void writeCsvRow(Writer out, String[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) out.write(',');
+            String value = row[i];
+            if (value == null) continue;
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write('\n');
+    }
+
+    // Tokenize the input, cutting it into runs of about memoryBudget /
+    // (threads + 1) bytes; each run is sorted and written on a pool thread
+    // while the next one fills, with at most `threads` runs in flight.
+    // A run that failed to write stops the tokenizer at the next cut.
+    private List<File> writeRuns(String inputPath, LoadMetrics metrics) throws IOException {
+        long runBudget = Math.max(1024 * 1024, memoryBudget / (threads + 1));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Semaphore inFlight = new Semaphore(threads);
+        List<Future<File>> futures = new ArrayList<>();
+        header = null;
+
+        LoadMetrics.PhaseTimer runTimer = metrics.startPhase("runs");
+        long[] rowCount = new long[1];
+        try (InputStream in = DecompressionPipeline.open(inputPath, metrics)) {
+            List<Entry> run = new ArrayList<>();
+            long[] runBytes = new long[1];
+            new CSVTokenizer(',').tokenize(in, fields -> {
+                if (header == null) {
+                    header = fields;
+                    keyIndex = Arrays.asList(fields).indexOf(columnName);
+                    if (keyIndex < 0) {
+                        throw new UncheckedIOException(new IOException("Column not found: " + columnName));
+                    }
+                    return;
+                }
+                run.add(new Entry(fields, keyIndex));
+                runBytes[0] += estimateRowBytes(fields);
+                rowCount[0]++;
+                if (runBytes[0] >= runBudget) {
+                    try {
+                        checkFinishedRuns(futures);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    futures.add(submitRun(pool, inFlight, new ArrayList<>(run)));
+                    run.clear();
+                    runBytes[0] = 0;
+                }
+            });
+            if (header == null) {
+                throw new IOException("CSV file is empty");
+            }
+            if (!run.isEmpty() || futures.isEmpty()) {
+                futures.add(submitRun(pool, inFlight, new ArrayList<>(run)));
+            }
+
+            List<File> runs = new ArrayList<>();
+            for (Future<File> future : futures) {
+                runs.add(waitFor(future));
+            }
+            runTimer.stop(new File(inputPath).length(), rowCount[0]);
+            return runs;
+        } catch (IOException | RuntimeException e) {
+            // Delete whatever runs were already written
+            for (Future<File> future : futures) {
+                try {
+                    waitFor(future).delete();
+                } catch (IOException ignored) {
+                    // Run failed too; nothing to delete
+                }
+            }
+            if (e instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e).getCause();
+            }
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Throw the error of any run that has already failed
+    private static void checkFinishedRuns(List<Future<File>> futures) throws IOException {
+        for (Future<File> future : futures) {
+            if (future.isDone()) {
+                waitFor(future);
+            }
+        }
+    }
+
+    private Future<File> submitRun(ExecutorService pool, Semaphore inFlight, List<Entry> run) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Sort interrupted"));
+        }
+        Comparator<Entry> order = entryOrder(ascending);
+        return pool.submit(() -> {
+            try {
+                run.sort(order);  // Stable, so equal keys keep file order
+                File file = tempFile();
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(file), IO_BUFFER))) {
+                    for (Entry entry : run) {
+                        DataSetJoiner.writeRow(out, Arrays.asList(entry.row));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    file.delete();
+                    throw e;
+                }
+                return file;
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    // Merge groups of MAX_FAN_IN runs (in parallel) until one final merge
+    // can read all remaining runs at once
+    private List<File> mergeDown(List<File> runs) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            while (runs.size() > MAX_FAN_IN) {
+                List<Future<File>> futures = new ArrayList<>();
+                for (int start = 0; start < runs.size(); start += MAX_FAN_IN) {
+                    List<File> group = new ArrayList<>(runs.subList(start, Math.min(runs.size(), start + MAX_FAN_IN)));
+                    futures.add(pool.submit(() -> mergeGroup(group)));
+                }
+                List<File> merged = new ArrayList<>();
+                try {
+                    for (Future<File> future : futures) {
+                        merged.add(waitFor(future));
+                    }
+                } catch (IOException e) {
+                    // Delete the groups that did merge
+                    for (Future<File> future : futures) {
+                        try {
+                            waitFor(future).delete();
+                        } catch (IOException ignored) {
+                            // Merge failed; SortedRows deleted its inputs
+                        }
+                    }
+                    throw e;
+                }
+                runs = merged;
+            }
+            return runs;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private File mergeGroup(List<File> group) throws IOException {
+        File file = tempFile();
+        try (SortedRows rows = new SortedRows(header, group, keyIndex, ascending);
+             DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(file), IO_BUFFER))) {
+            while (rows.hasNext()) {
+                DataSetJoiner.writeRow(out, Arrays.asList(rows.next()));
+            }
+        } catch (IOException | RuntimeException e) {
+            file.delete();
+            throw e;
+        }
+        return file;
+    }
+
+    // Run and merge files are deleted by SortedRows.close once read, or
+    // by the failure paths above, so none are left for exit-time cleanup
+    private static File tempFile() throws IOException {
+        return File.createTempFile("sort-run-", ".bin", OffHeapRowList.spillDirectory());
+    }
+
+    // Heap estimate of one row held in a run
+    private static long estimateRowBytes(String[] fields) {
+        long bytes = 32 + 16 + fields.length * 4L;
+        for (String value : fields) {
+            if (value != null) bytes += DataSet.estimateStringBytes(value);
+        }
+        return bytes;
+    }
+
+    private static void deleteAll(List<File> files) {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private static <T> T waitFor(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Sort interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Sort failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // Key order: numbers numerically, then text alphabetically; missing
+    // (null or empty) values always last. Direction applies to the rest.
+    static int compareKeys(String textA, double numberA, String textB, double numberB, boolean ascending) {
+        boolean missingA = textA == null || textA.isEmpty();
+        boolean missingB = textB == null || textB.isEmpty();
+        if (missingA || missingB) {
+            return missingA ? (missingB ? 0 : 1) : -1;
+        }
+        boolean isNumberA = !Double.isNaN(numberA);
+        boolean isNumberB = !Double.isNaN(numberB);
+        int result;
+        if (isNumberA && isNumberB) {
+            result = Double.compare(numberA, numberB);
+        } else if (isNumberA != isNumberB) {
+            result = isNumberA ? -1 : 1;
+        } else {
+            result = textA.compareTo(textB);
+        }
+        return ascending ? result : -result;
+    }
+
+    private static Comparator<Entry> entryOrder(boolean ascending) {
+        return (a, b) -> compareKeys(a.key, a.number, b.key, b.number, ascending);
+    }
+
+    // Row with its sort key parsed once
+    private static class Entry {
+        final String[] row;
+        final String key;
+        final double number;
+
+        Entry(String[] row, int keyIndex) {
+            this.row = row;
+            this.key = keyIndex < row.length ? row[keyIndex] : null;
+            this.number = DataSet.parseDoubleOrNaN(key);
+        }
+    }
+
+    // Streaming k-way merge over sorted run files; deletes them on close
+    public static class SortedRows implements Iterator<String[]>, Closeable {
+        private String[] headers;
+        private List<File> files;
+        private PriorityQueue<RunCursor> queue;
+        private List<RunCursor> cursors = new ArrayList<>();
+
+        SortedRows(String[] headers, List<File> files, int keyIndex, boolean ascending) throws IOException {
+            this.headers = headers;
+            this.files = files;
+            Comparator<Entry> order = entryOrder(ascending);
+            // Ties go to the earlier run, keeping the sort stable
+            this.queue = new PriorityQueue<>(Math.max(1, files.size()), (a, b) -> {
+                int result = order.compare(a.current, b.current);
+                return result != 0 ? result : Integer.compare(a.runIndex, b.runIndex);
+            });
+            try {
+                for (int i = 0; i < files.size(); i++) {
+                    RunCursor cursor = new RunCursor(files.get(i), i, keyIndex);
+                    cursors.add(cursor);
+                    if (cursor.advance()) queue.add(cursor);
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        // Get the header row of the input
+        public String[] getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public String[] next() {
+            RunCursor cursor = queue.poll();
+            if (cursor == null) throw new NoSuchElementException();
+            String[] row = cursor.current.row;
+            try {
+                if (cursor.advance()) queue.add(cursor);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (RunCursor cursor : cursors) {
+                cursor.in.close();
+            }
+            cursors.clear();
+            queue.clear();
+            deleteAll(files);
+        }
+    }
+
+    // Reads one run file row by row
+    private static class RunCursor {
+        private final DataInputStream in;
+        private final int runIndex;
+        private final int keyIndex;
+        private Entry current;
+
+        RunCursor(File file, int runIndex, int keyIndex) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), IO_BUFFER));
+            this.runIndex = runIndex;
+            this.keyIndex = keyIndex;
+        }
+
+        boolean advance() throws IOException {
+            String[] row = DataSetJoiner.readRow(in);
+            current = row == null ? null : new Entry(row, keyIndex);
+            return row != null;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+// ============================================================
+// File: Histogram.java
+// Purpose: Parallel histogram of a primitive numeric column
+// ============================================================
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+public class Histogram {
+    public static final int DEFAULT_BINS = 30;
+    public static final int MAX_BINS = 500;
+    private static final int MIN_VALUES_PER_TASK = 65_536;
+    private static final int IQR_SAMPLE_SIZE = 10_000;
+
+    // Ways to choose bin edges
+    public enum Binning { FIXED_WIDTH, FREEDMAN_DIACONIS, LOG_SCALE }
+
+    private Binning binning;
+    private double[] edges;   // binCount + 1 edges
+    private long[] counts;
+    private long excluded;    // NaN or infinite values, or non-positive values on a log scale
+
+    private Histogram(Binning binning, double[] edges, long[] counts, long excluded) {
+        this.binning = binning;
+        this.edges = edges;
+        this.counts = counts;
+        this.excluded = excluded;
+    }
+
+    // Build a histogram; binCount is used by FIXED_WIDTH and LOG_SCALE,
+    // FREEDMAN_DIACONIS derives it from the data
+    public static Histogram compute(double[] values, Binning binning, int binCount) {
+        boolean log = binning == Binning.LOG_SCALE;
+        double[] range = range(values, log);
+        double min = range[0];
+        double max = range[1];
+        long valid = (long) range[2];
+
+        if (valid == 0) {
+            return new Histogram(binning, new double[]{0, 0}, new long[1], values.length);
+        }
+
+        int bins = Math.max(1, Math.min(MAX_BINS, binCount));
+        if (binning == Binning.FREEDMAN_DIACONIS) {
+            bins = freedmanDiaconisBins(values, min, max, valid);
+        }
+
+        // Edges (log scale bins are equal width in log10 space)
+        double low = log ? Math.log10(min) : min;
+        double high = log ? Math.log10(max) : max;
+        if (high == low) {
+            high = low + 1.0;
+        }
+        double width = (high - low) / bins;
+        double[] edges = new double[bins + 1];
+        for (int i = 0; i <= bins; i++) {
+            double edge = low + i * width;
+            edges[i] = log ? Math.pow(10, edge) : edge;
+        }
+
+        // One linear pass: every task fills its own bin array, merged at the end
+        final int binTotal = bins;
+        final double start = low;
+        final double scale = bins / (high - low);
+        int tasks = taskCount(values.length);
+        int perTask = (values.length + tasks - 1) / tasks;
+        long[] counts = IntStream.range(0, tasks).parallel()
+            .mapToObj(t -> {
+                long[] local = new long[binTotal];
+                int end = Math.min(values.length, (t + 1) * perTask);
+                for (int i = t * perTask; i < end; i++) {
+                    double v = values[i];
+                    if (!Double.isFinite(v) || (log && v <= 0)) continue;
+                    int bin = (int) (((log ? Math.log10(v) : v) - start) * scale);
+                    if (bin >= binTotal) bin = binTotal - 1;
+                    if (bin < 0) bin = 0;
+                    local[bin]++;
+                }
+                return local;
+            })
+            .reduce((a, b) -> {
+                for (int i = 0; i < a.length; i++) a[i] += b[i];
+                return a;
+            })
+            .orElse(new long[binTotal]);
+
+        return new Histogram(binning, edges, counts, values.length - valid);
+    }
+
+    // Parallel min, max and count of usable (finite) values
+    private static double[] range(double[] values, boolean positiveOnly) {
+        int tasks = taskCount(values.length);
+        int perTask = (values.length + tasks - 1) / tasks;
+        return IntStream.range(0, tasks).parallel()
+            .mapToObj(t -> {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                long count = 0;
+                int end = Math.min(values.length, (t + 1) * perTask);
+                for (int i = t * perTask; i < end; i++) {
+                    double v = values[i];
+                    if (!Double.isFinite(v) || (positiveOnly && v <= 0)) continue;
+                    if (v < min) min = v;
+                    if (v > max) max = v;
+                    count++;
+                }
+                return new double[]{min, max, count};
+            })
+            .reduce((a, b) -> new double[]{Math.min(a[0], b[0]), Math.max(a[1], b[1]), a[2] + b[2]})
+            .orElse(new double[]{0, 0, 0});
+    }
+
+    // Bin width 2 * IQR / n^(1/3); the IQR comes from an evenly strided sample
+    private static int freedmanDiaconisBins(double[] values, double min, double max, long valid) {
+        int stride = Math.max(1, values.length / IQR_SAMPLE_SIZE);
+        double[] sample = IntStream.range(0, (values.length + stride - 1) / stride)
+            .mapToDouble(i -> values[i * stride])
+            .filter(Double::isFinite)
+            .toArray();
+        if (sample.length < 4) {
+            return DEFAULT_BINS;
+        }
+        Arrays.sort(sample);
+        double iqr = sample[(3 * sample.length) / 4] - sample[sample.length / 4];
+        double width = 2.0 * iqr / Math.cbrt(valid);
+        if (width <= 0) {
+            return DEFAULT_BINS;
+        }
+        return (int) Math.max(1, Math.min(MAX_BINS, Math.ceil((max - min) / width)));
+    }
+
+    private static int taskCount(int length) {
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4,
+                                    length / MIN_VALUES_PER_TASK));
+    }
+
+    // Get binning used
+    public Binning getBinning() {
+        return binning;
+    }
+
+    // Get number of bins
+    public int getBinCount() {
+        return counts.length;
+    }
+
+    // Get lower edge of a bin
+    public double getBinStart(int bin) {
+        return edges[bin];
+    }
+
+    // Get upper edge of a bin
+    public double getBinEnd(int bin) {
+        return edges[bin + 1];
+    }
+
+    // Get count of a bin
+    public long getCount(int bin) {
+        return counts[bin];
+    }
+
+    // Get largest bin count
+    public long getMaxCount() {
+        long max = 0;
+        for (long count : counts) {
+            max = Math.max(max, count);
+        }
+        return max;
+    }
+
+    // Get number of values left out (missing or infinite, or <= 0 on a log scale)
+    public long getExcludedCount() {
+        return excluded;
+    }
+}
@@ -0,0 +1,264 @@
+// ============================================================
+// File: IndexSort.java
+// Purpose: Parallel stable sort of row numbers by a key, giving an
+//          int[] permutation instead of moving the rows themselves
+// ============================================================
+
+import java.util.stream.IntStream;
+
+public class IndexSort {
+    private static final int MIN_ROWS_PER_TASK = 65_536;
+    private static final int INSERTION_SORT_SIZE = 32;
+    private static final int RADIX_BITS = 16;
+    private static final int RADIX_BUCKETS = 1 << RADIX_BITS;
+    private static final long MISSING_KEY = -1L;  // Largest unsigned key: sorts last
+
+    // Compares two row numbers by their keys
+    public interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    private IndexSort() {
+    }
+
+    // Row numbers ordered by a numeric key, NaN (missing) last. Keys are
+    // turned into unsigned-sortable bits and radix sorted, unless the
+    // 24 bytes per row of scratch space would crowd the heap.
+    public static int[] sort(NumericColumn keys) {
+        int size = keys.size();
+        if (size * 24L > Runtime.getRuntime().maxMemory() / 4) {
+            return sort(size, (a, b) -> Double.compare(keys.get(a), keys.get(b)));
+        }
+        long[] bits = new long[size];
+        IntStream.range(0, size).parallel().forEach(i -> bits[i] = sortableBits(keys.get(i)));
+        return radixSort(bits);
+    }
+
+    // Row numbers ordered by text (String.compareTo), null and empty last.
+    // Rows are radix sorted on the characters after the prefix all keys
+    // share (eight when they fit in a byte, else four), then each run
+    // with equal characters is merge sorted on the full text.
+    public static int[] sort(String[] keys) {
+        int shared = sharedPrefixLength(keys);
+        boolean narrow = IntStream.range(0, keys.length).parallel().allMatch(i -> {
+            String key = keys[i];
+            int end = key == null ? 0 : Math.min(key.length(), shared + 8);
+            for (int c = shared; c < end; c++) {
+                if (key.charAt(c) > 0xFF) return false;
+            }
+            return true;
+        });
+        int charBits = narrow ? 8 : 16;
+        long[] prefixes = new long[keys.length];
+        IntStream.range(0, keys.length).parallel().forEach(i -> {
+            String key = keys[i];
+            if (key == null || key.isEmpty()) {
+                prefixes[i] = MISSING_KEY;
+                return;
+            }
+            long packed = 0;
+            for (int c = shared; c < shared + 64 / charBits; c++) {
+                packed = (packed << charBits) | (c < key.length() ? key.charAt(c) : 0);
+            }
+            prefixes[i] = packed;
+        });
+        int[] order = radixSort(prefixes);
+
+        RowComparator comparator = (a, b) -> compareText(keys[a], keys[b]);
+        int[] buffer = new int[order.length];
+        int start = 0;
+        for (int i = 1; i <= order.length; i++) {
+            if (i == order.length || prefixes[order[i]] != prefixes[order[start]]) {
+                if (i - start > 1) {
+                    mergeSort(order, buffer, start, i, comparator);
+                }
+                start = i;
+            }
+        }
+        return order;
+    }
+
+    // Text order with null and empty values last
+    public static int compareText(String a, String b) {
+        boolean missingA = a == null || a.isEmpty();
+        boolean missingB = b == null || b.isEmpty();
+        if (missingA || missingB) return Boolean.compare(missingA, missingB);
+        return a.compareTo(b);
+    }
+
+    private static int sharedPrefixLength(String[] keys) {
+        String first = null;
+        int shared = Integer.MAX_VALUE;
+        for (String key : keys) {
+            if (key == null || key.isEmpty()) continue;
+            if (first == null) {
+                first = key;
+                shared = key.length();
+                continue;
+            }
+            int limit = Math.min(shared, key.length());
+            int c = 0;
+            while (c < limit && key.charAt(c) == first.charAt(c)) c++;
+            shared = c;
+            if (shared == 0) break;
+        }
+        return first == null ? 0 : shared;
+    }
+
+    // Bits of a double that order like Double.compare when compared as
+    // unsigned longs (NaN above +Infinity)
+    private static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+    }
+
+    // Stable LSD radix sort of row numbers by unsigned 64-bit keys, 16
+    // bits per pass. Each task counts and places its own slice of rows;
+    // passes where every key has the same digit are skipped.
+    private static int[] radixSort(long[] keys) {
+        int size = keys.length;
+        int tasks = taskCount(size);
+        int perTask = (size + tasks - 1) / Math.max(1, tasks);
+        int[] order = new int[size];
+        int[] buffer = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+
+        for (int shift = 0; shift < 64; shift += RADIX_BITS) {
+            final int s = shift;
+            final int[] from = order;
+            final int[] to = buffer;
+            int[][] counts = new int[tasks][];
+            IntStream.range(0, tasks).parallel().forEach(t -> {
+                int[] local = new int[RADIX_BUCKETS];
+                int end = Math.min(size, (t + 1) * perTask);
+                for (int i = t * perTask; i < end; i++) {
+                    local[(int) (keys[from[i]] >>> s) & (RADIX_BUCKETS - 1)]++;
+                }
+                counts[t] = local;
+            });
+
+            // Bucket start per task: digit-major, task-minor keeps it stable
+            int position = 0;
+            boolean oneBucket = false;
+            for (int digit = 0; digit < RADIX_BUCKETS; digit++) {
+                int total = 0;
+                for (int t = 0; t < tasks; t++) {
+                    int count = counts[t][digit];
+                    counts[t][digit] = position;
+                    position += count;
+                    total += count;
+                }
+                if (total == size) oneBucket = true;
+            }
+            if (oneBucket) continue;
+
+            IntStream.range(0, tasks).parallel().forEach(t -> {
+                int[] next = counts[t];
+                int end = Math.min(size, (t + 1) * perTask);
+                for (int i = t * perTask; i < end; i++) {
+                    int row = from[i];
+                    to[next[(int) (keys[row] >>> s) & (RADIX_BUCKETS - 1)]++] = row;
+                }
+            });
+            buffer = order;
+            order = to;
+        }
+        return order;
+    }
+
+    // Row numbers ordered by a comparator; rows with equal keys keep their order
+    public static int[] sort(int size, RowComparator comparator) {
+        int[] order = new int[size];
+        int[] buffer = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+
+        // Each task sorts its own run; runs are then merged pairwise, in
+        // parallel, until one is left
+        int tasks = taskCount(size);
+        int runLength = (size + tasks - 1) / Math.max(1, tasks);
+        IntStream.range(0, tasks).parallel().forEach(t -> {
+            int low = t * runLength;
+            int high = Math.min(size, low + runLength);
+            if (low < high) {
+                mergeSort(order, buffer, low, high, comparator);
+            }
+        });
+
+        int[] source = order;
+        int[] target = buffer;
+        for (int width = runLength; width < size; width *= 2) {
+            final int w = width;
+            final int[] from = source;
+            final int[] to = target;
+            IntStream.range(0, (size + 2 * w - 1) / (2 * w)).parallel().forEach(p -> {
+                int low = p * 2 * w;
+                merge(from, to, low, Math.min(size, low + w), Math.min(size, low + 2 * w), comparator);
+            });
+            source = to;
+            target = from;
+        }
+        return source;
+    }
+
+    // First position in a sorted permutation whose key is >= value
+    public static int lowerBound(int[] order, NumericColumn keys, double value) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(keys.get(order[mid]), value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Top-down merge sort of order[low, high) using buffer as scratch
+    private static void mergeSort(int[] order, int[] buffer, int low, int high, RowComparator comparator) {
+        if (high - low <= INSERTION_SORT_SIZE) {
+            for (int i = low + 1; i < high; i++) {
+                int row = order[i];
+                int j = i - 1;
+                while (j >= low && comparator.compare(order[j], row) > 0) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = row;
+            }
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        mergeSort(order, buffer, low, mid, comparator);
+        mergeSort(order, buffer, mid, high, comparator);
+        if (comparator.compare(order[mid - 1], order[mid]) <= 0) {
+            return;  // Already in order
+        }
+        System.arraycopy(order, low, buffer, low, high - low);
+        merge(buffer, order, low, mid, high, comparator);
+    }
+
+    // Merge from[low, mid) and from[mid, high) into to[low, high)
+    private static void merge(int[] from, int[] to, int low, int mid, int high, RowComparator comparator) {
+        int i = low;
+        int j = mid;
+        for (int k = low; k < high; k++) {
+            if (j >= high || (i < mid && comparator.compare(from[i], from[j]) <= 0)) {
+                to[k] = from[i++];
+            } else {
+                to[k] = from[j++];
+            }
+        }
+    }
+
+    // Power of two number of runs, so the merge passes pair up evenly
+    private static int taskCount(int size) {
+        int wanted = Math.min(Runtime.getRuntime().availableProcessors(), size / MIN_ROWS_PER_TASK);
+        return Integer.highestOneBit(Math.max(1, wanted));
+    }
+}
@@ -0,0 +1,154 @@
+// ============================================================
+// File: LazyCSVIndex.java
+// Purpose: Byte offsets of every row and field of a mapped CSV file,
+//          so single fields can be decoded later without re-parsing
+// ============================================================
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+public class LazyCSVIndex implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PAGE_BITS = 16;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private MappedFile file;
+    private char delimiter;
+
+    private int rowCount;
+    private long[] rowStarts;       // File offset of each row
+    private long[] rowFieldStarts;  // Position of each row's first entry in fieldEnds
+    private int[][] fieldEnds;      // Paged: end of each field, relative to its row start
+    private long fieldCount;
+    private boolean rowOpen;
+
+    // Constructor: maps the file and builds the index in one pass
+    public LazyCSVIndex(String filePath, char delimiter) throws IOException {
+        this.file = new MappedFile(filePath);
+        this.delimiter = delimiter;
+        this.rowStarts = new long[1024];
+        this.rowFieldStarts = new long[1025];
+        this.fieldEnds = new int[16][];
+        try {
+            build();
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    // Scan all bytes once with the block tokenizer, recording delimiter
+    // and newline positions that are outside quotes
+    private void build() throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = file.size();
+        CSVTokenizer tokenizer = new CSVTokenizer(delimiter);
+        CSVTokenizer.StructureHandler handler = new CSVTokenizer.StructureHandler() {
+            @Override
+            public void delimiter(long position) {
+                addFieldEnd((int) (position - rowStarts[rowCount]));
+            }
+
+            @Override
+            public void newline(long position) {
+                addFieldEnd((int) (position - rowStarts[rowCount]));
+                endRow();
+                if (position + 1 < size) {
+                    startRow(position + 1);
+                }
+            }
+        };
+
+        if (size > 0) {
+            startRow(0);
+        }
+        for (long base = 0; base < size; base += BUFFER_SIZE) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Indexing interrupted");  // Load cancelled
+            }
+            int length = (int) Math.min(BUFFER_SIZE, size - base);
+            file.get(base, buffer, 0, length);
+            tokenizer.scan(buffer, 0, length, base, base + length == size, handler);
+        }
+
+        // Last line without trailing newline
+        if (rowOpen) {
+            addFieldEnd((int) (size - rowStarts[rowCount]));
+            endRow();
+        }
+    }
+
+    private void startRow(long offset) {
+        if (rowCount == rowStarts.length) {
+            rowStarts = java.util.Arrays.copyOf(rowStarts, rowCount * 2);
+            rowFieldStarts = java.util.Arrays.copyOf(rowFieldStarts, rowCount * 2 + 1);
+        }
+        rowStarts[rowCount] = offset;
+        rowFieldStarts[rowCount] = fieldCount;
+        rowOpen = true;
+    }
+
+    private void endRow() {
+        rowCount++;
+        rowFieldStarts[rowCount] = fieldCount;
+        rowOpen = false;
+    }
+
+    private void addFieldEnd(int relativeEnd) {
+        int page = (int) (fieldCount >>> PAGE_BITS);
+        if (page == fieldEnds.length) {
+            fieldEnds = java.util.Arrays.copyOf(fieldEnds, page * 2);
+        }
+        if (fieldEnds[page] == null) {
+            fieldEnds[page] = new int[PAGE_SIZE];
+        }
+        fieldEnds[page][(int) (fieldCount & (PAGE_SIZE - 1))] = relativeEnd;
+        fieldCount++;
+    }
+
+    private int fieldEnd(long field) {
+        return fieldEnds[(int) (field >>> PAGE_BITS)][(int) (field & (PAGE_SIZE - 1))];
+    }
+
+    // Get number of rows (including the header row)
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    // Get number of fields in a row
+    public int getFieldCount(int row) {
+        return (int) (rowFieldStarts[row + 1] - rowFieldStarts[row]);
+    }
+
+    // Get size of the indexed file in bytes
+    public long getFileSize() {
+        return file.size();
+    }
+
+    // Estimate heap bytes used by the index itself
+    public long estimateIndexBytes() {
+        return rowStarts.length * 8L + rowFieldStarts.length * 8L
+             + ((fieldCount >>> PAGE_BITS) + 1) * PAGE_SIZE * 4L;
+    }
+
+    // Decode one field into a string (null if the row has no such field).
+    // Matches CSVReader: quotes removed, "" inside quotes is a quote, trimmed.
+    public String getField(int row, int column, byte[] scratch) {
+        if (column >= getFieldCount(row)) return null;
+
+        long first = rowFieldStarts[row];
+        int start = column == 0 ? 0 : fieldEnd(first + column - 1) + 1;
+        int end = fieldEnd(first + column);
+        int length = end - start;
+
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        file.get(rowStarts[row] + start, bytes, 0, length);
+        return CSVTokenizer.decodeField(bytes, 0, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
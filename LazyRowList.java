@@ -0,0 +1,286 @@
+// ============================================================
+// File: LazyRowList.java
+// Purpose: DataSet rows backed by a LazyCSVIndex; a column is decoded
+//          into typed storage only when something first reads it
+// ============================================================
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+public class LazyRowList extends AbstractList<List<String>>
+        implements RandomAccess, ColumnStore, MemoryManager.Evictable {
+    private LazyCSVIndex index;
+    private int columnCount;
+    private volatile String[][] textColumns;  // Materialized text, per column (replaced, never written in place)
+    private double[][] numberColumns;   // Materialized doubles, per column
+    private int[] order;                // Row permutation after sorting (null = file order)
+    private String[][] orderedText;     // Text in sorted order, per column (kept while the order holds)
+    private double[][] orderedNumbers;  // Doubles in sorted order, per column
+    private boolean reordered;          // set() moved rows since the ordered copies were made
+    private volatile LoadMetrics loadMetrics;  // Where materialize phases are recorded
+
+    // Constructor: row 0 of the index is the header and is not a data row
+    public LazyRowList(LazyCSVIndex index, int columnCount) {
+        this.index = index;
+        this.columnCount = columnCount;
+        this.textColumns = new String[columnCount][];
+        this.numberColumns = new double[columnCount][];
+        this.orderedText = new String[columnCount][];
+        this.orderedNumbers = new double[columnCount][];
+    }
+
+    // Set metrics that column decoding is recorded in
+    public void setLoadMetrics(LoadMetrics loadMetrics) {
+        this.loadMetrics = loadMetrics;
+    }
+
+    // Index row holding a data row
+    private int physicalRow(int row) {
+        return (order == null ? row : order[row]) + 1;
+    }
+
+    // Decode a column's text on first use (the MemoryManager may drop it
+    // again later; it is then decoded from the file once more). Reading
+    // a decoded column takes no lock, so parallel scans do not contend.
+    private String[] textColumn(int column) {
+        String[] values = textColumns[column];
+        if (values != null) return values;
+        synchronized (this) {
+            values = textColumns[column];
+            if (values != null) return values;
+
+            LoadMetrics.PhaseTimer timer = LoadMetrics.startPhase(loadMetrics, "materialize");
+            int rows = index.getRowCount() - 1;
+            values = new String[rows];
+            byte[] scratch = new byte[256];
+            for (int r = 0; r < rows; r++) {
+                values[r] = index.getField(r + 1, column, scratch);
+            }
+            setTextColumn(column, values);
+            timer.stop(0, rows);
+        }
+        MemoryManager.get().register(this, "text:" + column, "column " + column + " text (lazy)",
+                                     MemoryManager.Kind.COLUMN, estimateTextBytes(values));
+        return values;
+    }
+
+    // Publish a new per-column array, so unlocked readers see whole columns
+    private void setTextColumn(int column, String[] values) {
+        String[][] columns = textColumns.clone();
+        columns[column] = values;
+        textColumns = columns;
+    }
+
+    private static long estimateTextBytes(String[] values) {
+        long bytes = 16 + values.length * 4L;
+        for (String value : values) {
+            if (value != null) bytes += DataSet.estimateStringBytes(value);
+        }
+        return bytes;
+    }
+
+    @Override
+    public boolean evict(String part) {
+        int column = Integer.parseInt(part.substring(part.indexOf(':') + 1));
+        synchronized (this) {
+            if (part.startsWith("text:")) {
+                setTextColumn(column, null);
+            } else if (part.startsWith("numbers:")) {
+                numberColumns[column] = null;
+            } else if (part.startsWith("ordered-text:")) {
+                orderedText[column] = null;
+            } else {
+                orderedNumbers[column] = null;
+            }
+        }
+        return true;
+    }
+
+    // Doubles in row order; after a sort the permuted copy is kept until
+    // the order changes again
+    @Override
+    public double[] getDoubleColumn(int column) {
+        boolean created;
+        boolean sorted;
+        boolean orderedCreated = false;
+        boolean dropped;
+        double[] values;
+        synchronized (this) {
+            dropped = dropReorderedCopies();
+            created = numberColumns[column] == null;
+            values = numberColumn(column);
+            sorted = order != null;
+            if (sorted) {
+                orderedCreated = orderedNumbers[column] == null;
+                if (orderedCreated) {
+                    double[] ordered = new double[order.length];
+                    for (int r = 0; r < order.length; r++) {
+                        ordered[r] = values[order[r]];
+                    }
+                    orderedNumbers[column] = ordered;
+                }
+                values = orderedNumbers[column];
+            }
+        }
+        if (dropped) {
+            MemoryManager.get().unregisterAll(this, "ordered-");
+        }
+        track("numbers:" + column, "column " + column + " numbers (lazy)", created, 16 + values.length * 8L);
+        if (sorted) {
+            track("ordered-numbers:" + column, "column " + column + " numbers (lazy, sorted)",
+                  orderedCreated, 16 + values.length * 8L);
+        }
+        return values;
+    }
+
+    // Register a cache entry when it was just built, otherwise mark it used
+    private void track(String part, String label, boolean created, long bytes) {
+        if (created) {
+            MemoryManager.get().register(this, part, label, MemoryManager.Kind.CACHE, bytes);
+        } else {
+            MemoryManager.get().touch(this, part);
+        }
+    }
+
+    // Forget ordered copies made before the last sort (caller holds the
+    // lock and unregisters them when this returns true)
+    private boolean dropReorderedCopies() {
+        if (!reordered) return false;
+        reordered = false;
+        Arrays.fill(orderedText, null);
+        Arrays.fill(orderedNumbers, null);
+        return true;
+    }
+
+    // Doubles in file order, parsed on first use
+    private double[] numberColumn(int column) {
+        if (numberColumns[column] == null) {
+            LoadMetrics.PhaseTimer timer = LoadMetrics.startPhase(loadMetrics, "materialize");
+            int rows = index.getRowCount() - 1;
+            double[] values = new double[rows];
+            String[] text = textColumns[column];
+            byte[] scratch = new byte[256];
+            for (int r = 0; r < rows; r++) {
+                // Reuse decoded text if present, otherwise parse straight from the file
+                String value = text != null ? text[r] : index.getField(r + 1, column, scratch);
+                values[r] = DataSet.parseDoubleOrNaN(value);
+            }
+            numberColumns[column] = values;
+            timer.stop(0, rows);
+        }
+        return numberColumns[column];
+    }
+
+    @Override
+    public NumericColumn getNumericColumn(int column) {
+        return new ArrayNumericColumn(getDoubleColumn(column));
+    }
+
+    // Text in row order; after a sort the permuted copy is kept until the
+    // order changes again
+    @Override
+    public List<String> getStringColumn(int column) {
+        String[] values = textColumn(column);
+        MemoryManager.get().touch(this, "text:" + column);
+        boolean created;
+        boolean dropped;
+        synchronized (this) {
+            if (order == null) {
+                return Arrays.asList(values);
+            }
+            dropped = dropReorderedCopies();
+            created = orderedText[column] == null;
+            if (created) {
+                String[] ordered = new String[order.length];
+                for (int r = 0; r < order.length; r++) {
+                    ordered[r] = values[order[r]];
+                }
+                orderedText[column] = ordered;
+            }
+            values = orderedText[column];
+        }
+        if (dropped) {
+            MemoryManager.get().unregisterAll(this, "ordered-");
+        }
+        track("ordered-text:" + column, "column " + column + " text (lazy, sorted)",
+              created, 16 + values.length * 4L);
+        return Arrays.asList(values);
+    }
+
+    @Override
+    public String peekValue(int row, int column) {
+        return index.getField(physicalRow(row), column, new byte[256]);
+    }
+
+    @Override
+    public synchronized long estimateColumnBytes(int column) {
+        long bytes = 0;
+        if (numberColumns[column] != null) {
+            bytes += 16 + numberColumns[column].length * 8L;
+        }
+        if (textColumns[column] != null) {
+            for (String value : textColumns[column]) {
+                bytes += 4 + (value == null ? 0 : DataSet.estimateStringBytes(value));
+            }
+        }
+        return bytes;
+    }
+
+    // Check whether a column has been decoded
+    public synchronized boolean isMaterialized(int column) {
+        return textColumns[column] != null || numberColumns[column] != null;
+    }
+
+    @Override
+    public List<String> get(int row) {
+        if (row < 0 || row >= size()) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size());
+        }
+        return new RowView(physicalRow(row) - 1);
+    }
+
+    // Sorting stores row views back in new positions; only the permutation changes
+    @Override
+    public List<String> set(int row, List<String> value) {
+        if (!(value instanceof RowView)) {
+            throw new UnsupportedOperationException("Lazy rows are read-only");
+        }
+        if (order == null) {
+            order = new int[size()];
+            for (int r = 0; r < order.length; r++) order[r] = r;
+        }
+        List<String> previous = get(row);
+        order[row] = ((RowView) value).dataRow;
+        reordered = true;
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return Math.max(0, index.getRowCount() - 1);
+    }
+
+    // One row; each cell read materializes that cell's column
+    private class RowView extends AbstractList<String> implements RandomAccess {
+        private final int dataRow;
+
+        RowView(int dataRow) {
+            this.dataRow = dataRow;
+        }
+
+        @Override
+        public String get(int column) {
+            if (column < 0 || column >= size()) {
+                throw new IndexOutOfBoundsException("Column " + column);
+            }
+            return textColumn(column)[dataRow];
+        }
+
+        @Override
+        public int size() {
+            return Math.min(columnCount, index.getFieldCount(dataRow + 1));
+        }
+    }
+}
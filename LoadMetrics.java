@@ -0,0 +1,241 @@
+// ============================================================
+// File: LoadMetrics.java
+// Purpose: Record timings and throughput of the load pipeline (one
+//          instance per load, kept with the DataSet it produced)
+// ============================================================
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LoadMetrics {
+    private String source;
+    private long startTime;
+    private Map<String, PhaseStats> phases;
+    private Map<String, Long> columnFootprints;
+
+    // Constructor
+    public LoadMetrics(String source) {
+        this.source = source;
+        this.startTime = System.currentTimeMillis();
+        this.phases = new LinkedHashMap<>();
+        this.columnFootprints = new LinkedHashMap<>();
+    }
+
+    // Start timing a phase of some metrics (a no-op timer for null, e.g.
+    // a DataSet built in code rather than loaded)
+    public static PhaseTimer startPhase(LoadMetrics metrics, String phaseName) {
+        if (metrics == null) {
+            return new PhaseTimer(null, phaseName);
+        }
+        return metrics.startPhase(phaseName);
+    }
+
+    // Start timing a phase
+    public PhaseTimer startPhase(String phaseName) {
+        return new PhaseTimer(this, phaseName);
+    }
+
+    // Record a phase measured by the caller; repeated phases accumulate
+    public void recordPhase(String phaseName, long nanos, long bytes, long rows, long allocatedBytes) {
+        accumulate(phaseName, nanos, bytes, rows, allocatedBytes);
+
+        LoadPhaseEvent event = new LoadPhaseEvent();
+        event.source = source;
+        event.phase = phaseName;
+        event.phaseNanos = nanos;
+        event.bytes = bytes;
+        event.rows = rows;
+        event.allocatedBytes = allocatedBytes;
+        event.commit();
+    }
+
+    // Add one measurement to the phase totals
+    private void accumulate(String phaseName, long nanos, long bytes, long rows, long allocatedBytes) {
+        synchronized (phases) {
+            PhaseStats stats = phases.get(phaseName);
+            if (stats == null) {
+                stats = new PhaseStats(phaseName);
+                phases.put(phaseName, stats);
+            }
+            stats.count++;
+            stats.nanos += nanos;
+            stats.bytes += bytes;
+            stats.rows += rows;
+            stats.allocatedBytes += allocatedBytes;
+        }
+    }
+
+    // Record the estimated heap footprint of a column
+    public void recordColumnFootprint(String columnName, long bytes) {
+        synchronized (columnFootprints) {
+            columnFootprints.put(columnName, bytes);
+        }
+
+        ColumnFootprintEvent event = new ColumnFootprintEvent();
+        event.source = source;
+        event.column = columnName;
+        event.bytes = bytes;
+        event.commit();
+    }
+
+    // Get source file of this load
+    public String getSource() {
+        return source;
+    }
+
+    // Get time the load started (epoch millis)
+    public long getStartTime() {
+        return startTime;
+    }
+
+    // Get a copy of all recorded phases, in the order they first ran
+    public List<PhaseStats> getPhases() {
+        synchronized (phases) {
+            List<PhaseStats> copy = new ArrayList<>();
+            for (PhaseStats stats : phases.values()) {
+                copy.add(stats.copy());
+            }
+            return copy;
+        }
+    }
+
+    // Get a single phase (null if it has not run)
+    public PhaseStats getPhase(String phaseName) {
+        synchronized (phases) {
+            PhaseStats stats = phases.get(phaseName);
+            return stats == null ? null : stats.copy();
+        }
+    }
+
+    // Get estimated heap bytes per column
+    public Map<String, Long> getColumnFootprints() {
+        synchronized (columnFootprints) {
+            return new LinkedHashMap<>(columnFootprints);
+        }
+    }
+
+    // Get all metrics as formatted string
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("=== Load Metrics: ").append(source).append(" ===\n");
+        report.append(String.format("%-14s %6s %10s %14s %12s %14s %12s\n",
+            "Phase", "Calls", "Time(ms)", "Bytes", "Rows", "MB/s", "Alloc(KB)"));
+
+        for (PhaseStats stats : getPhases()) {
+            report.append(String.format("%-14s %6d %10.2f %14d %12d %14.2f %12d\n",
+                stats.getName(), stats.getCount(), stats.getMillis(), stats.getBytes(),
+                stats.getRows(), stats.getBytesPerSecond() / (1024.0 * 1024.0),
+                stats.getAllocatedBytes() / 1024));
+        }
+
+        Map<String, Long> footprints = getColumnFootprints();
+        if (!footprints.isEmpty()) {
+            report.append("\nEstimated heap per column:\n");
+            long total = 0;
+            for (Map.Entry<String, Long> entry : footprints.entrySet()) {
+                report.append(String.format("  %-20s %12d KB\n", entry.getKey(), entry.getValue() / 1024));
+                total += entry.getValue();
+            }
+            report.append(String.format("  %-20s %12d KB\n", "(total)", total / 1024));
+        }
+        return report.toString();
+    }
+
+    // Bytes allocated by the current thread so far (-1 if unsupported)
+    static long currentThreadAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getCurrentThreadAllocatedBytes();
+            }
+        }
+        return -1;
+    }
+
+    // Accumulated numbers for one pipeline phase
+    public static class PhaseStats {
+        private String name;
+        private int count;
+        private long nanos;
+        private long bytes;
+        private long rows;
+        private long allocatedBytes;
+
+        PhaseStats(String name) {
+            this.name = name;
+        }
+
+        PhaseStats copy() {
+            PhaseStats copy = new PhaseStats(name);
+            copy.count = count;
+            copy.nanos = nanos;
+            copy.bytes = bytes;
+            copy.rows = rows;
+            copy.allocatedBytes = allocatedBytes;
+            return copy;
+        }
+
+        public String getName() { return name; }
+        public int getCount() { return count; }
+        public long getNanos() { return nanos; }
+        public double getMillis() { return nanos / 1_000_000.0; }
+        public long getBytes() { return bytes; }
+        public long getRows() { return rows; }
+        public long getAllocatedBytes() { return allocatedBytes; }
+
+        public double getBytesPerSecond() {
+            return nanos == 0 ? 0.0 : bytes * 1_000_000_000.0 / nanos;
+        }
+
+        public double getRowsPerSecond() {
+            return nanos == 0 ? 0.0 : rows * 1_000_000_000.0 / nanos;
+        }
+    }
+
+    // Times one phase on the current thread and emits a JFR event on stop
+    public static class PhaseTimer {
+        private LoadMetrics owner;
+        private LoadPhaseEvent event;
+        private long startNanos;
+        private long startAllocated;
+
+        PhaseTimer(LoadMetrics owner, String phaseName) {
+            this.owner = owner;
+            if (owner != null) {
+                event = new LoadPhaseEvent();
+                event.source = owner.source;
+                event.phase = phaseName;
+                event.begin();
+            }
+            this.startAllocated = currentThreadAllocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        // Stop timing without throughput numbers
+        public void stop() {
+            stop(0, 0);
+        }
+
+        // Stop timing and record bytes and rows handled by the phase
+        public void stop(long bytes, long rows) {
+            long nanos = System.nanoTime() - startNanos;
+            if (owner == null) return;
+
+            long endAllocated = currentThreadAllocatedBytes();
+            long allocated = (startAllocated < 0 || endAllocated < 0) ? 0 : endAllocated - startAllocated;
+            owner.accumulate(event.phase, nanos, bytes, rows, allocated);
+
+            event.end();
+            event.phaseNanos = nanos;
+            event.bytes = bytes;
+            event.rows = rows;
+            event.allocatedBytes = allocated;
+            event.commit();
+        }
+    }
+}
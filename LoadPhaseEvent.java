@@ -0,0 +1,36 @@
+// ============================================================
+// File: LoadPhaseEvent.java
+// Purpose: JFR event emitted for each timed load pipeline phase
+// ============================================================
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("dataviz.LoadPhase")
+@Label("Load Phase")
+@Category({"Data Visualization", "Loading"})
+public class LoadPhaseEvent extends jdk.jfr.Event {
+    @Label("Source")
+    String source;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Phase Time")
+    @Timespan
+    long phaseNanos;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -0,0 +1,89 @@
+// ============================================================
+// File: MappedFile.java
+// Purpose: Memory-mapped file addressed by long offsets
+//          (mapped in 1 GB segments to get past the 2 GB limit)
+// ============================================================
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class MappedFile implements Closeable {
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+    private MappedByteBuffer[] segments;
+    private long size;
+
+    // Constructor: maps the whole file read-only
+    public MappedFile(String filePath) throws IOException {
+        this(filePath, false);
+    }
+
+    // Constructor: maps the whole file (mappings stay valid after the
+    // channel is closed, so no file handle is kept open)
+    public MappedFile(String filePath, boolean writable) throws IOException {
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        StandardOpenOption[] options = writable
+            ? new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE}
+            : new StandardOpenOption[]{StandardOpenOption.READ};
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), options)) {
+            size = channel.size();
+
+            int count = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+            segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(mode, start,
+                                          Math.min(SEGMENT_SIZE, size - start));
+            }
+        }
+    }
+
+    // Get file size in bytes
+    public long size() {
+        return size;
+    }
+
+    // Get one byte
+    public byte get(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    // Get a big-endian double (8-byte aligned positions never span segments)
+    public double getDouble(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].getDouble((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    // Put a big-endian double (writable mappings only)
+    public void putDouble(long position, double value) {
+        segments[(int) (position >>> SEGMENT_BITS)].putDouble((int) (position & (SEGMENT_SIZE - 1)), value);
+    }
+
+    // Get a big-endian long (8-byte aligned positions never span segments)
+    public long getLong(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].getLong((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    // Copy bytes into an array (may span segments)
+    public void get(long position, byte[] destination, int offset, int length) {
+        while (length > 0) {
+            MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_BITS)];
+            int inSegment = (int) (position & (SEGMENT_SIZE - 1));
+            int n = Math.min(length, segment.limit() - inSegment);
+            segment.get(inSegment, destination, offset, n);
+            position += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public void close() {
+        // Mappings are released when the buffers are garbage collected
+        segments = new MappedByteBuffer[0];
+    }
+}
@@ -0,0 +1,123 @@
+// ============================================================
+// File: MappedNumericColumn.java
+// Purpose: NumericColumn stored off the heap in a memory-mapped
+//          file of big-endian doubles
+// ============================================================
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class MappedNumericColumn implements NumericColumn {
+    private static final int INSERTION_SORT_SIZE = 32;
+
+    private MappedFile file;
+    private int size;
+    private MappedNumericColumn sorted;  // Sorted copy, kept until released
+
+    // Constructor: maps a file written as size * 8 bytes of doubles
+    public MappedNumericColumn(File file, boolean writable) throws IOException {
+        this.file = new MappedFile(file.getPath(), writable);
+        this.size = (int) (this.file.size() / 8);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double get(int index) {
+        return file.getDouble((long) index << 3);
+    }
+
+    private void set(int index, double value) {
+        file.putDouble((long) index << 3, value);
+    }
+
+    // Copy the non-NaN values to a scratch file and sort them in place,
+    // so the sorted copy never has to fit on the heap. The copy is kept
+    // (the values never change) and shared by every caller.
+    @Override
+    public synchronized NumericColumn sortedValues() {
+        if (sorted != null) {
+            return sorted;
+        }
+        try {
+            File scratch = File.createTempFile("csvviz-sorted", ".bin", OffHeapRowList.spillDirectory());
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(scratch), 1 << 16))) {
+                for (int i = 0; i < size; i++) {
+                    double value = get(i);
+                    if (!Double.isNaN(value)) {
+                        out.writeDouble(value);
+                    }
+                }
+            }
+            MappedNumericColumn copy;
+            try {
+                copy = new MappedNumericColumn(scratch, true);
+            } finally {
+                scratch.delete();  // The mapping stays valid without the file
+            }
+            copy.sort(0, copy.size - 1);
+            sorted = copy;
+            return sorted;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Quicksort with a random pivot, recursing into the smaller side only
+    private void sort(int low, int high) {
+        while (high - low >= INSERTION_SORT_SIZE) {
+            double pivot = get(ThreadLocalRandom.current().nextInt(low, high + 1));
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (get(i) < pivot) i++;
+                while (get(j) > pivot) j--;
+                if (i <= j) {
+                    double temp = get(i);
+                    set(i++, get(j));
+                    set(j--, temp);
+                }
+            }
+            if (j - low < high - i) {
+                sort(low, j);
+                low = i;
+            } else {
+                sort(i, high);
+                high = j;
+            }
+        }
+
+        for (int i = low + 1; i <= high; i++) {
+            double value = get(i);
+            int j = i - 1;
+            while (j >= low && get(j) > value) {
+                set(j + 1, get(j));
+                j--;
+            }
+            set(j + 1, value);
+        }
+    }
+
+    // Drop the sorted copy (made again on the next sortedValues call)
+    public synchronized void releaseSortedValues() {
+        if (sorted != null) {
+            sorted.close();
+            sorted = null;
+        }
+    }
+
+    // Release the mapping and the sorted copy
+    public void close() {
+        releaseSortedValues();
+        file.close();
+    }
+}
@@ -0,0 +1,272 @@
+// ============================================================
+// File: MemoryManager.java
+// Purpose: Estimated heap accounting for datasets, columns and
+//          derived caches, with LRU eviction and spilling to disk
+//          when a configurable budget is exceeded
+// ============================================================
+
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class MemoryManager {
+    // Eviction order: caches first, then columns, whole tables last
+    public enum Kind {
+        CACHE("derived cache"),        // Can be recomputed (numeric conversions, chart data)
+        COLUMN("column"),              // Can be re-read from disk (lazy columns)
+        TABLE("table");                // Can be spilled to off-heap files
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    // Something holding memory that can give part of it up on request;
+    // returns false if the memory could not be released
+    public interface Evictable {
+        boolean evict(String part);
+    }
+
+    private static final MemoryManager INSTANCE = new MemoryManager();
+    private static final long RETRY_AFTER_FAILURE_NANOS = 60_000_000_000L;  // Backoff after a failed eviction
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private volatile long budget;
+    private long evictions;
+    private long spills;
+    private long failures;
+    private volatile String lastFailure;  // Last failed spill, shown in the status bar
+
+    // Evictions run here, never on the caller's thread: spilling a table
+    // writes every row and must not block the event dispatch thread
+    private final ExecutorService enforcer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "memory-budget");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean enforcePending = new AtomicBoolean();
+
+    private MemoryManager() {
+        budget = parseBytes(System.getProperty("csvviz.memory.budget"),
+                            Runtime.getRuntime().maxMemory() / 10 * 6);
+    }
+
+    // Get the shared manager
+    public static MemoryManager get() {
+        return INSTANCE;
+    }
+
+    // Parse sizes like "512m", "2g", "65536k" or plain bytes
+    public static long parseBytes(String text, long defaultValue) {
+        if (text == null || text.trim().isEmpty()) return defaultValue;
+        String value = text.trim().toLowerCase();
+        long unit = 1;
+        char suffix = value.charAt(value.length() - 1);
+        if (suffix == 'k' || suffix == 'm' || suffix == 'g') {
+            unit = suffix == 'k' ? 1024L : suffix == 'm' ? 1024L * 1024 : 1024L * 1024 * 1024;
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            return (long) (Double.parseDouble(value) * unit);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    // Get budget in bytes
+    public long getBudget() {
+        return budget;
+    }
+
+    // Set budget in bytes and evict down to it in the background
+    public void setBudget(long bytes) {
+        budget = bytes;
+        enforceLater();
+    }
+
+    // Record (or update) memory held by part of an owner, then enforce
+    // the budget in the background. The owner is held weakly, so
+    // forgotten owners drop out.
+    public void register(Evictable owner, String part, String label, Kind kind, long bytes) {
+        synchronized (this) {
+            Key key = new Key(owner, part);
+            entries.put(key, new Entry(key, label, kind, bytes));
+        }
+        enforceLater();
+    }
+
+    // Run enforce() on the memory-budget thread; requests made while one
+    // is already queued share it
+    public void enforceLater() {
+        if (enforcePending.compareAndSet(false, true)) {
+            enforcer.execute(() -> {
+                enforcePending.set(false);
+                enforce();
+            });
+        }
+    }
+
+    // Mark part of an owner as just used
+    public synchronized void touch(Evictable owner, String part) {
+        entries.get(new Key(owner, part));
+    }
+
+    // Forget part of an owner (it released the memory itself)
+    public synchronized void unregister(Evictable owner, String part) {
+        entries.remove(new Key(owner, part));
+    }
+
+    // Forget every part of an owner whose name starts with a prefix
+    public synchronized void unregisterAll(Evictable owner, String partPrefix) {
+        entries.keySet().removeIf(key -> key.owner.get() == owner && key.part.startsWith(partPrefix));
+    }
+
+    // Get estimated bytes of everything registered
+    public synchronized long getUsedBytes() {
+        pruneCollected();
+        long used = 0;
+        for (Entry entry : entries.values()) {
+            used += entry.bytes;
+        }
+        return used;
+    }
+
+    // Evict least recently used entries, caches before columns before
+    // tables, until the estimate fits the budget. Owners are called
+    // outside the lock so they may register or unregister freely. An
+    // entry whose owner could not release it (a failed spill) is tracked
+    // again but skipped for a while, and the next candidate is tried, so
+    // a full disk does not mean rewriting the table on every register().
+    public void enforce() {
+        while (true) {
+            Entry victim;
+            synchronized (this) {
+                pruneCollected();
+                long used = 0;
+                for (Entry entry : entries.values()) {
+                    used += entry.bytes;
+                }
+                if (used <= budget) return;
+                victim = leastRecentlyUsed();
+                if (victim == null) return;
+                entries.remove(victim.key);
+            }
+            Evictable owner = victim.key.owner.get();
+            if (owner == null) continue;
+            boolean released = owner.evict(victim.key.part);
+            synchronized (this) {
+                if (!released) {
+                    failures++;
+                    victim.failedAt = System.nanoTime();
+                    entries.putIfAbsent(victim.key, victim);
+                    continue;
+                }
+                if (victim.kind == Kind.TABLE) {
+                    spills++;
+                    lastFailure = null;
+                } else {
+                    evictions++;
+                }
+            }
+        }
+    }
+
+    // Record why an owner could not release memory (shown until a later
+    // spill succeeds)
+    public void reportFailure(String message) {
+        lastFailure = message;
+    }
+
+    // Least recently used entry of the first kind that has one, skipping
+    // entries whose last eviction failed recently
+    private Entry leastRecentlyUsed() {
+        long now = System.nanoTime();
+        for (Kind kind : Kind.values()) {
+            for (Entry entry : entries.values()) {
+                if (entry.kind == kind && (entry.failedAt == 0 || now - entry.failedAt > RETRY_AFTER_FAILURE_NANOS)) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void pruneCollected() {
+        entries.keySet().removeIf(key -> key.owner.get() == null);
+    }
+
+    // One-line usage for the status bar
+    public String getStatusText() {
+        Runtime runtime = Runtime.getRuntime();
+        long heapUsed = runtime.totalMemory() - runtime.freeMemory();
+        String status = String.format("Memory: %d / %d MB tracked, heap %d / %d MB",
+            getUsedBytes() >> 20, budget >> 20, heapUsed >> 20, runtime.maxMemory() >> 20);
+        String failure = lastFailure;
+        return failure == null ? status : status + " - " + failure;
+    }
+
+    // Full report, least recently used first
+    public synchronized String getReport() {
+        pruneCollected();
+        StringBuilder report = new StringBuilder();
+        report.append("=== Memory Budget ===\n");
+        report.append(getStatusText()).append("\n");
+        report.append(String.format("Evictions: %d, tables spilled to disk: %d, failed: %d%n%n",
+                                    evictions, spills, failures));
+        report.append(String.format("%-16s %-44s %12s%n", "Kind", "Item (least recently used first)", "KB"));
+        for (Entry entry : entries.values()) {
+            report.append(String.format("%-16s %-44s %12d%n", entry.kind.getLabel(), entry.label, entry.bytes / 1024));
+        }
+        return report.toString();
+    }
+
+    // Owner identity (held weakly) + part name
+    private static final class Key {
+        private final WeakReference<Evictable> owner;
+        private final String part;
+        private final int hash;
+
+        Key(Evictable owner, String part) {
+            this.owner = new WeakReference<>(owner);
+            this.part = part;
+            this.hash = System.identityHashCode(owner) * 31 + part.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) return true;
+            if (!(other instanceof Key)) return false;
+            Object referent = owner.get();
+            return referent != null && referent == ((Key) other).owner.get() && part.equals(((Key) other).part);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final String label;
+        private final Kind kind;
+        private final long bytes;
+        private long failedAt;  // nanoTime of the last failed eviction (0 = none)
+
+        Entry(Key key, String label, Kind kind, long bytes) {
+            this.key = key;
+            this.label = label;
+            this.kind = kind;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+// ============================================================
+// File: MinMaxPyramid.java
+// Purpose: Multi-level min/max/mean summary of a numeric series, so
+//          any range can be summarized without visiting every value
+// ============================================================
+
+import java.util.Arrays;
+
+public class MinMaxPyramid {
+    public static final int FANOUT = 8;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Level 0 holds the values; entry i of level L summarizes values
+    // [i * 8^L, (i + 1) * 8^L). Only complete entries are stored.
+    private double[] values = new double[INITIAL_CAPACITY];
+    private int size;
+    private Level[] levels = new Level[0];  // levels[0] is level 1
+
+    private int rowsConsumed;  // Column rows read so far (NaN rows are skipped)
+
+    // Empty pyramid (fill with append)
+    public MinMaxPyramid() {
+    }
+
+    // Pyramid of the non-NaN values of a column, in row order
+    public MinMaxPyramid(NumericColumn column) {
+        appendFrom(column);
+    }
+
+    // Append column rows not read yet (rows added since the last call);
+    // returns false if the column shrank and the pyramid must be rebuilt
+    public boolean appendFrom(NumericColumn column) {
+        int rows = column.size();
+        if (rows < rowsConsumed) return false;
+        for (int row = rowsConsumed; row < rows; row++) {
+            double value = column.get(row);
+            if (!Double.isNaN(value)) {
+                append(value);
+            }
+        }
+        rowsConsumed = rows;
+        return true;
+    }
+
+    // Append one value; completed entries are summarized upwards, so the
+    // cost is O(1) amortized
+    public void append(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+
+        int count = size;
+        for (int level = 0; count % FANOUT == 0; level++) {
+            if (level == levels.length) {
+                levels = Arrays.copyOf(levels, level + 1);
+                levels[level] = new Level();
+            }
+            levels[level].add(this, level, count / FANOUT - 1);
+            count /= FANOUT;
+        }
+    }
+
+    // Get number of column rows read so far (including NaN rows)
+    public int getRowsRead() {
+        return rowsConsumed;
+    }
+
+    // Get number of values
+    public int size() {
+        return size;
+    }
+
+    // Get value at an index
+    public double get(int index) {
+        return values[index];
+    }
+
+    // Copy of all values (for computations that need an array)
+    public double[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    // Estimated heap bytes of values and summaries
+    public long estimateBytes() {
+        long bytes = 16 + values.length * 8L;
+        for (Level level : levels) {
+            bytes += level.min.length * 28L;
+        }
+        return bytes;
+    }
+
+    // Summarize values [from, to): at each level, unaligned entries at the
+    // ends are taken one by one and the aligned middle moves up a level,
+    // so at most 2 * (FANOUT - 1) entries are read per level
+    public Summary summarize(int from, int to) {
+        Summary summary = new Summary();
+        from = Math.max(0, from);
+        to = Math.min(size, to);
+        int level = -1;  // -1 = values
+        while (from < to) {
+            while (from < to && (from % FANOUT != 0 || level + 1 >= levels.length)) {
+                summary.add(this, level, from++);
+            }
+            while (from < to && to % FANOUT != 0) {
+                summary.add(this, level, --to);
+            }
+            if (from >= to) break;
+            from /= FANOUT;
+            to /= FANOUT;
+            level++;
+        }
+        return summary;
+    }
+
+    // Summaries of one level (min, max, sum and count per entry)
+    private static class Level {
+        private double[] min = new double[16];
+        private double[] max = new double[16];
+        private double[] sum = new double[16];
+        private int[] count = new int[16];
+        private int size;
+
+        // Summarize entry `index` from the FANOUT entries below it
+        void add(MinMaxPyramid pyramid, int level, int index) {
+            if (size == min.length) {
+                min = Arrays.copyOf(min, size * 2);
+                max = Arrays.copyOf(max, size * 2);
+                sum = Arrays.copyOf(sum, size * 2);
+                count = Arrays.copyOf(count, size * 2);
+            }
+            Summary summary = new Summary();
+            for (int child = index * FANOUT; child < (index + 1) * FANOUT; child++) {
+                summary.add(pyramid, level - 1, child);
+            }
+            min[size] = summary.min;
+            max[size] = summary.max;
+            sum[size] = summary.sum;
+            count[size] = summary.count;
+            size++;
+        }
+    }
+
+    // Min, max and mean of a range
+    public static class Summary {
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double sum;
+        private int count;
+
+        // Add entry `index` of a level (-1 = a single value)
+        private void add(MinMaxPyramid pyramid, int level, int index) {
+            if (level < 0) {
+                double value = pyramid.values[index];
+                if (value < min) min = value;
+                if (value > max) max = value;
+                sum += value;
+                count++;
+                return;
+            }
+            Level entries = pyramid.levels[level];
+            if (entries.min[index] < min) min = entries.min[index];
+            if (entries.max[index] > max) max = entries.max[index];
+            sum += entries.sum[index];
+            count += entries.count[index];
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getMin() {
+            return count == 0 ? Double.NaN : min;
+        }
+
+        public double getMax() {
+            return count == 0 ? Double.NaN : max;
+        }
+
+        public double getMean() {
+            return count == 0 ? Double.NaN : sum / count;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+// ============================================================
+// File: NumericColumn.java
+// Purpose: Read access to a column of doubles, on or off the heap
+//          (NaN marks a missing or non-numeric value)
+// ============================================================
+
+public interface NumericColumn {
+
+    // Get number of values (including NaN)
+    int size();
+
+    // Get value at a row
+    double get(int index);
+
+    // Get the non-NaN values in ascending order, stored the same way
+    // as this column (heap or off-heap)
+    NumericColumn sortedValues();
+}
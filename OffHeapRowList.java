@@ -0,0 +1,309 @@
+// ============================================================
+// File: OffHeapRowList.java
+// Purpose: DataSet rows stored column by column in memory-mapped
+//          temp files, so the data lives outside the Java heap
+// ============================================================
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+public class OffHeapRowList extends AbstractList<List<String>> implements RandomAccess, ColumnStore {
+    // Cell entries pack the text length (high 24 bits) and offset (low 40 bits)
+    private static final int OFFSET_BITS = 40;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+    private static final int MAX_FIELD_BYTES = (1 << 23) - 1;
+    private static final long NULL_CELL = -1L;
+
+    private int rowCount;
+    private int columnCount;
+    private MappedFile text;               // UTF-8 bytes of all cells, row-major
+    private MappedFile[] cells;            // Per column: one packed entry per row
+    private MappedNumericColumn[] numbers; // Per column: one double per row
+    private long fileBytes;
+    private int[] order;                   // Row permutation after sorting (null = file order)
+
+    private OffHeapRowList(Writer writer) throws IOException {
+        this.rowCount = writer.rowCount;
+        this.columnCount = writer.headers.length;
+        this.fileBytes = writer.textBytes + 16L * rowCount * columnCount;
+        this.text = new MappedFile(writer.textFile.getPath());
+        this.cells = new MappedFile[columnCount];
+        this.numbers = new MappedNumericColumn[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            cells[c] = new MappedFile(writer.cellFiles[c].getPath());
+            numbers[c] = new MappedNumericColumn(writer.numberFiles[c], false);
+        }
+        writer.deleteFiles();
+    }
+
+    // Directory for the backing files (-Dcsvviz.offheap.dir, default temp dir)
+    static File spillDirectory() {
+        return new File(System.getProperty("csvviz.offheap.dir", System.getProperty("java.io.tmpdir")));
+    }
+
+    // Data row in file order
+    private int physicalRow(int row) {
+        return order == null ? row : order[row];
+    }
+
+    // Decode one cell straight from the mapped files
+    private String cell(int dataRow, int column) {
+        long entry = cells[column].getLong((long) dataRow << 3);
+        if (entry == NULL_CELL) return null;
+        byte[] bytes = new byte[(int) (entry >>> OFFSET_BITS)];
+        text.get(entry & OFFSET_MASK, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public List<String> getStringColumn(int column) {
+        // View over the mapped cells; nothing is decoded until read
+        return new AbstractList<String>() {
+            @Override
+            public String get(int row) {
+                return cell(physicalRow(row), column);
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+
+    @Override
+    public double[] getDoubleColumn(int column) {
+        NumericColumn source = getNumericColumn(column);
+        double[] values = new double[rowCount];
+        for (int r = 0; r < rowCount; r++) {
+            values[r] = source.get(r);
+        }
+        return values;
+    }
+
+    @Override
+    public NumericColumn getNumericColumn(int column) {
+        MappedNumericColumn values = numbers[column];
+        int[] rowOrder = order;
+        if (rowOrder == null) {
+            return values;
+        }
+        // Sorted view: same values in permuted order
+        return new NumericColumn() {
+            @Override
+            public int size() {
+                return rowOrder.length;
+            }
+
+            @Override
+            public double get(int index) {
+                return values.get(rowOrder[index]);
+            }
+
+            @Override
+            public NumericColumn sortedValues() {
+                return values.sortedValues();
+            }
+        };
+    }
+
+    @Override
+    public String peekValue(int row, int column) {
+        return cell(physicalRow(row), column);
+    }
+
+    // Cells live off the heap; only the sort permutation is on it
+    @Override
+    public long estimateColumnBytes(int column) {
+        return 0;
+    }
+
+    // Drop the sorted copies made for statistics
+    public void releaseSortedValues() {
+        for (MappedNumericColumn column : numbers) {
+            column.releaseSortedValues();
+        }
+    }
+
+    // Get total size of the backing files in bytes
+    public long getOffHeapBytes() {
+        return fileBytes;
+    }
+
+    @Override
+    public List<String> get(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+        }
+        return new RowView(physicalRow(row));
+    }
+
+    // Sorting stores row views back in new positions; only the permutation changes
+    @Override
+    public List<String> set(int row, List<String> value) {
+        if (!(value instanceof RowView)) {
+            throw new UnsupportedOperationException("Off-heap rows are read-only");
+        }
+        if (order == null) {
+            order = new int[rowCount];
+            for (int r = 0; r < order.length; r++) order[r] = r;
+        }
+        List<String> previous = get(row);
+        order[row] = ((RowView) value).dataRow;
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return rowCount;
+    }
+
+    // One row; cells are decoded on each read
+    private class RowView extends AbstractList<String> implements RandomAccess {
+        private final int dataRow;
+
+        RowView(int dataRow) {
+            this.dataRow = dataRow;
+        }
+
+        @Override
+        public String get(int column) {
+            if (column < 0 || column >= columnCount) {
+                throw new IndexOutOfBoundsException("Column " + column);
+            }
+            return cell(dataRow, column);
+        }
+
+        @Override
+        public int size() {
+            return columnCount;
+        }
+    }
+
+    // Streams tokenized rows into the backing files; the first row is the
+    // header. Only the write buffers are held on the heap.
+    public static class Writer implements CSVTokenizer.RowHandler, Closeable {
+        private static final int WRITE_BUFFER = 16 * 1024;
+
+        private String[] headers;
+        private int rowCount;
+        private long textBytes;
+        private File textFile;
+        private File[] cellFiles;
+        private File[] numberFiles;
+        private DataOutputStream textOut;
+        private DataOutputStream[] cellOut;
+        private DataOutputStream[] numberOut;
+        private boolean finished;  // Files handed to an OffHeapRowList
+
+        @Override
+        public void row(String[] fields) {
+            try {
+                if (headers == null) {
+                    open(fields);
+                } else {
+                    writeRow(fields);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void open(String[] headerFields) throws IOException {
+            headers = headerFields;
+            File directory = spillDirectory();
+            textFile = File.createTempFile("csvviz-text", ".bin", directory);
+            textOut = stream(textFile);
+            cellFiles = new File[headers.length];
+            numberFiles = new File[headers.length];
+            cellOut = new DataOutputStream[headers.length];
+            numberOut = new DataOutputStream[headers.length];
+            for (int c = 0; c < headers.length; c++) {
+                cellFiles[c] = File.createTempFile("csvviz-cells", ".bin", directory);
+                numberFiles[c] = File.createTempFile("csvviz-numbers", ".bin", directory);
+                cellOut[c] = stream(cellFiles[c]);
+                numberOut[c] = stream(numberFiles[c]);
+            }
+        }
+
+        private static DataOutputStream stream(File file) throws IOException {
+            file.deleteOnExit();
+            return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), WRITE_BUFFER));
+        }
+
+        // Missing trailing fields are stored as null, extra fields are dropped
+        private void writeRow(String[] fields) throws IOException {
+            for (int c = 0; c < headers.length; c++) {
+                String value = c < fields.length ? fields[c] : null;
+                if (value == null) {
+                    cellOut[c].writeLong(NULL_CELL);
+                } else {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    if (bytes.length > MAX_FIELD_BYTES) {
+                        throw new IOException("Field larger than " + MAX_FIELD_BYTES + " bytes in row " + (rowCount + 1));
+                    }
+                    cellOut[c].writeLong(((long) bytes.length << OFFSET_BITS) | textBytes);
+                    textOut.write(bytes);
+                    textBytes += bytes.length;
+                }
+                numberOut[c].writeDouble(DataSet.parseDoubleOrNaN(value));
+            }
+            rowCount++;
+        }
+
+        // Get the header row (null if no row was written)
+        public String[] getHeaders() {
+            return headers;
+        }
+
+        // Flush the files and map them as a row list
+        public OffHeapRowList finish() throws IOException {
+            finished = true;
+            close();
+            try {
+                return new OffHeapRowList(this);
+            } catch (IOException | RuntimeException e) {
+                deleteFiles();
+                throw e;
+            }
+        }
+
+        // Close the files; without finish() (a failed or abandoned write)
+        // they are deleted as well
+        @Override
+        public void close() throws IOException {
+            if (textOut == null) return;
+            try {
+                textOut.close();
+                for (int c = 0; c < headers.length; c++) {
+                    if (cellOut[c] != null) cellOut[c].close();
+                    if (numberOut[c] != null) numberOut[c].close();
+                }
+            } finally {
+                textOut = null;
+                if (!finished) {
+                    deleteFiles();
+                }
+            }
+        }
+
+        // Mapped files stay readable after being unlinked (where the OS
+        // allows it; elsewhere they go on exit)
+        private void deleteFiles() {
+            if (textFile != null) textFile.delete();
+            for (int c = 0; cellFiles != null && c < cellFiles.length; c++) {
+                if (cellFiles[c] != null) cellFiles[c].delete();
+                if (numberFiles[c] != null) numberFiles[c].delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+// ============================================================
+// File: PreviewSampler.java
+// Purpose: Quick approximate DataSet from a random sample of rows,
+//          taken within a fixed time budget
+// ============================================================
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class PreviewSampler {
+    public static final int DEFAULT_SAMPLE_ROWS = 10_000;
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 500;
+    private static final int MAX_LINE_BYTES = 1024 * 1024;
+
+    private int sampleRows;
+    private long timeBudgetNanos;
+    private Random random = new Random();
+
+    private LoadMetrics metrics;
+    private long rowsSeen;
+    private long estimatedRowCount;
+    private boolean complete;  // Sample spans the whole file (not cut off by the time budget)
+
+    // Constructor with default sample size and time budget
+    public PreviewSampler() {
+        this(DEFAULT_SAMPLE_ROWS, DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    // Constructor
+    public PreviewSampler(int sampleRows, long timeBudgetMillis) {
+        this.sampleRows = sampleRows;
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+    }
+
+    // Sample a CSV into an approximate DataSet. Plain files are sampled at
+    // random byte offsets through a memory map; compressed files are read
+    // from the start with a reservoir sample until the budget runs out.
+    // Phases go to the sampler's own LoadMetrics, not the latest load's,
+    // since the preview runs alongside the full load.
+    public DataSet sample(String filePath) throws IOException {
+        metrics = new LoadMetrics(filePath + " (preview)");
+        LoadMetrics.PhaseTimer sampleTimer = metrics.startPhase("sample");
+        List<String[]> rows = DecompressionPipeline.isCompressed(filePath)
+            ? reservoirSample(filePath)
+            : offsetSample(filePath);
+        if (rows.isEmpty()) {
+            throw new IOException("CSV file is empty");
+        }
+        sampleTimer.stop(0, rowsSeen);
+
+        DataSet dataSet = new DataSet();
+        dataSet.setLoadMetrics(metrics);
+        dataSet.setHeaders(rows.get(0));
+        for (int i = 1; i < rows.size(); i++) {
+            dataSet.addRow(rows.get(i));
+        }
+        dataSet.inferColumnTypes();
+        dataSet.setApproximate(!complete);
+        return dataSet;
+    }
+
+    // Get metrics of the last sample (null before sampling)
+    public LoadMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Get number of data rows read while sampling
+    public long getRowsSeen() {
+        return rowsSeen;
+    }
+
+    // Describe the sample, e.g. "10000 sampled rows of ~6000000"
+    public String describe(DataSet sample) {
+        return sample.getRowCount() + " sampled rows " + (estimatedRowCount >= 0
+            ? "of ~" + estimatedRowCount
+            : "from the first " + rowsSeen + " rows");
+    }
+
+    // Get estimated number of data rows in the whole file (-1 when a
+    // compressed file was only read in part)
+    public long getEstimatedRowCount() {
+        return estimatedRowCount;
+    }
+
+    // Block-offset sample: split the data into equal byte strata, take one
+    // random offset in each and parse the line containing it. Strata are
+    // visited in shuffled order, so a sample cut short by the time budget
+    // is still spread over the whole file. Long lines are a little more
+    // likely to be picked, and a quoted field spanning lines can be cut;
+    // both are acceptable for a preview.
+    private List<String[]> offsetSample(String filePath) throws IOException {
+        CSVReader reader = new CSVReader(filePath);
+        List<String[]> rows = new ArrayList<>();
+        long deadline = System.nanoTime() + timeBudgetNanos;
+
+        try (MappedFile file = new MappedFile(filePath)) {
+            long size = file.size();
+            long headerEnd = lineEnd(file, 0);
+            if (size == 0) return rows;
+            rows.add(reader.parseLine(lineText(file, 0, headerEnd)));
+            long dataStart = Math.min(size, headerEnd + 1);
+            long dataBytes = size - dataStart;
+            if (dataBytes == 0) {
+                complete = true;
+                return rows;
+            }
+
+            long[] offsets = new long[sampleRows];
+            double stratumBytes = (double) dataBytes / sampleRows;
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = dataStart + Math.min(dataBytes - 1, (long) ((i + random.nextDouble()) * stratumBytes));
+            }
+            for (int i = offsets.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                long swap = offsets[i];
+                offsets[i] = offsets[j];
+                offsets[j] = swap;
+            }
+
+            Set<Long> lineStarts = new HashSet<>();  // Strata smaller than a line share it
+            long sampledBytes = 0;
+            complete = true;
+            for (int i = 0; i < offsets.length; i++) {
+                if ((i & 63) == 0 && System.nanoTime() > deadline) {
+                    complete = false;
+                    break;
+                }
+
+                // The line containing the offset starts after the previous
+                // newline (give up on lines longer than MAX_LINE_BYTES)
+                long start = offsets[i];
+                long limit = Math.max(dataStart, start - MAX_LINE_BYTES);
+                while (start > limit && file.get(start - 1) != '\n') start--;
+                if (start > dataStart && file.get(start - 1) != '\n') continue;
+                if (!lineStarts.add(start)) continue;
+
+                long end = lineEnd(file, start);
+                String line = lineText(file, start, end);
+                if (line.isEmpty()) continue;
+                rows.add(reader.parseLine(line));
+                sampledBytes += end - start + 1;
+                rowsSeen++;
+            }
+            estimatedRowCount = rowsSeen == 0 ? 0 : (long) (dataBytes / ((double) sampledBytes / rowsSeen));
+        }
+        return rows;
+    }
+
+    private static long lineEnd(MappedFile file, long start) {
+        long limit = Math.min(file.size(), start + MAX_LINE_BYTES);
+        long position = start;
+        while (position < limit && file.get(position) != '\n') position++;
+        return position;
+    }
+
+    private static String lineText(MappedFile file, long start, long end) {
+        byte[] bytes = new byte[(int) (end - start)];
+        file.get(start, bytes, 0, bytes.length);
+        int length = bytes.length;
+        if (length > 0 && bytes[length - 1] == '\r') length--;
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // Reservoir sample (Li's Algorithm L: the number of rows to skip
+    // before the next replacement is drawn directly)
+    private List<String[]> reservoirSample(String filePath) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        String[][] reservoir = new String[sampleRows][];
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        long[] nextPick = {sampleRows};
+        double[] w = {Math.exp(Math.log(random.nextDouble()) / sampleRows)};
+        nextPick[0] += skip(w[0]);
+
+        try (InputStream in = DecompressionPipeline.open(filePath, null)) {
+            new CSVTokenizer(',').tokenize(in, fields -> {
+                if (rows.isEmpty()) {
+                    rows.add(fields);  // Header
+                    return;
+                }
+                long index = rowsSeen++;
+                if (index < sampleRows) {
+                    reservoir[(int) index] = fields;
+                } else if (index == nextPick[0]) {
+                    reservoir[random.nextInt(sampleRows)] = fields;
+                    w[0] *= Math.exp(Math.log(random.nextDouble()) / sampleRows);
+                    nextPick[0] += 1 + skip(w[0]);
+                }
+                if ((index & 1023) == 0 && System.nanoTime() > deadline) {
+                    throw new BudgetExceeded();
+                }
+            });
+            complete = true;
+        } catch (BudgetExceeded e) {
+            // Time is up: keep the sample of the rows read so far
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        for (int i = 0; i < Math.min(rowsSeen, sampleRows); i++) {
+            rows.add(reservoir[i]);
+        }
+        estimatedRowCount = complete ? rowsSeen : -1;
+        return rows;
+    }
+
+    private long skip(double w) {
+        return (long) Math.floor(Math.log(random.nextDouble()) / Math.log(1 - w));
+    }
+
+    // Stops the tokenizer once the time budget is used up
+    private static class BudgetExceeded extends RuntimeException {
+        BudgetExceeded() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+// ============================================================
+// File: RollingStatistics.java
+// Purpose: Moving mean, standard deviation, min and max over a
+//          fixed window, updated in O(1) amortized per value
+// ============================================================
+
+public class RollingStatistics {
+    private final int window;
+
+    // Last `window` values, indexed by sequence number mod window
+    private final double[] values;
+    private long pushed;
+
+    // Welford mean/M2 of the non-NaN values in the window
+    private int count;
+    private double mean;
+    private double m2;
+
+    // Monotonic deques of sequence numbers (front = current min/max)
+    private final long[] minQueue;
+    private final long[] maxQueue;
+    private int minHead, minSize;
+    private int maxHead, maxSize;
+
+    // Constructor
+    public RollingStatistics(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Window must be at least 1");
+        }
+        this.window = window;
+        this.values = new double[window];
+        this.minQueue = new long[window];
+        this.maxQueue = new long[window];
+    }
+
+    // Compute rolling series over a whole column; entry i covers rows
+    // max(0, i - window + 1) .. i. NaN values take a window slot but are
+    // otherwise ignored.
+    public static Series compute(double[] data, int window) {
+        RollingStatistics rolling = new RollingStatistics(window);
+        Series series = new Series(data.length);
+        for (int i = 0; i < data.length; i++) {
+            rolling.push(data[i]);
+            series.mean[i] = rolling.getMean();
+            series.standardDeviation[i] = rolling.getStandardDeviation();
+            series.min[i] = rolling.getMin();
+            series.max[i] = rolling.getMax();
+        }
+        return series;
+    }
+
+    // Add the next value (live tail); the oldest one leaves the window
+    public void push(double value) {
+        long sequence = pushed++;
+        if (sequence >= window) {
+            remove(values[(int) (sequence % window)]);
+        }
+        values[(int) (sequence % window)] = value;
+        long oldest = sequence - window + 1;
+
+        // Drop deque fronts that left the window
+        if (minSize > 0 && minQueue[minHead] < oldest) {
+            minHead = (minHead + 1) % window;
+            minSize--;
+        }
+        if (maxSize > 0 && maxQueue[maxHead] < oldest) {
+            maxHead = (maxHead + 1) % window;
+            maxSize--;
+        }
+
+        if (!Double.isNaN(value)) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+            pushDeques(sequence, value);
+        }
+
+        // Once per window, recompute mean/M2 exactly so rounding from
+        // the add/remove updates cannot build up
+        if (pushed % window == 0) {
+            resync();
+        }
+    }
+
+    private void pushDeques(long sequence, double value) {
+        // Back of each deque: drop values the new one makes irrelevant
+        while (minSize > 0 && valueAt(minQueue[(minHead + minSize - 1) % window]) >= value) {
+            minSize--;
+        }
+        minQueue[(minHead + minSize) % window] = sequence;
+        minSize++;
+        while (maxSize > 0 && valueAt(maxQueue[(maxHead + maxSize - 1) % window]) <= value) {
+            maxSize--;
+        }
+        maxQueue[(maxHead + maxSize) % window] = sequence;
+        maxSize++;
+    }
+
+    // Two-pass mean and M2 over the current window
+    private void resync() {
+        int n = (int) Math.min(pushed, window);
+        double sum = 0;
+        int valid = 0;
+        for (int i = 0; i < n; i++) {
+            if (!Double.isNaN(values[i])) {
+                sum += values[i];
+                valid++;
+            }
+        }
+        if (valid == 0) return;
+        double exactMean = sum / valid;
+        double squares = 0;
+        for (int i = 0; i < n; i++) {
+            if (!Double.isNaN(values[i])) {
+                double d = values[i] - exactMean;
+                squares += d * d;
+            }
+        }
+        mean = exactMean;
+        m2 = squares;
+    }
+
+    // Reverse Welford step for a value leaving the window
+    private void remove(double value) {
+        if (Double.isNaN(value)) return;
+        count--;
+        if (count == 0) {
+            mean = 0;
+            m2 = 0;
+            return;
+        }
+        double delta = value - mean;
+        mean -= delta / count;
+        // A single value has no spread; avoid leftover rounding there
+        m2 = count == 1 ? 0 : Math.max(0, m2 - delta * (value - mean));
+    }
+
+    private double valueAt(long sequence) {
+        return values[(int) (sequence % window)];
+    }
+
+    // Get window size
+    public int getWindow() {
+        return window;
+    }
+
+    // Get number of non-NaN values in the window
+    public int getCount() {
+        return count;
+    }
+
+    // Get mean of the window (NaN if it holds no values)
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    // Get population standard deviation of the window (NaN if empty)
+    public double getStandardDeviation() {
+        return count == 0 ? Double.NaN : Math.sqrt(m2 / count);
+    }
+
+    // Get minimum of the window (NaN if empty)
+    public double getMin() {
+        return minSize == 0 ? Double.NaN : valueAt(minQueue[minHead]);
+    }
+
+    // Get maximum of the window (NaN if empty)
+    public double getMax() {
+        return maxSize == 0 ? Double.NaN : valueAt(maxQueue[maxHead]);
+    }
+
+    // Rolling results aligned with the input rows
+    public static class Series {
+        private final double[] mean;
+        private final double[] standardDeviation;
+        private final double[] min;
+        private final double[] max;
+
+        Series(int size) {
+            mean = new double[size];
+            standardDeviation = new double[size];
+            min = new double[size];
+            max = new double[size];
+        }
+
+        public int size() {
+            return mean.length;
+        }
+
+        public double getMean(int index) {
+            return mean[index];
+        }
+
+        public double getStandardDeviation(int index) {
+            return standardDeviation[index];
+        }
+
+        public double getMin(int index) {
+            return min[index];
+        }
+
+        public double getMax(int index) {
+            return max[index];
+        }
+    }
+}
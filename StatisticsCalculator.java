@@ -3,37 +3,46 @@
 // Purpose: Perform statistical analysis on numeric data
 // ============================================================
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 public class StatisticsCalculator {
-    private List<Double> data;
+    private NumericColumn data;
     private String columnName;
+    private int count = -1;
+    private NumericColumn sorted;
     
     // Constructor
     public StatisticsCalculator(List<Double> data, String columnName) {
-        this.data = new ArrayList<>(data);
+        this(ArrayNumericColumn.of(data), columnName);
+    }
+    
+    // Constructor: reads the column in place (NaN values are skipped),
+    // so off-heap columns are never copied onto the heap
+    public StatisticsCalculator(NumericColumn data, String columnName) {
+        this.data = data;
         this.columnName = columnName;
     }
     
+    // Sorted non-NaN values, computed once for median, mode and quartiles
+    private NumericColumn sortedData() {
+        if (sorted == null) {
+            sorted = data.sortedValues();
+        }
+        return sorted;
+    }
+    
     // Calculate mean (average)
     public double getMean() {
-        if (data.isEmpty()) return 0.0;
+        if (getCount() == 0) return 0.0;
         
-        double sum = 0.0;
-        for (double value : data) {
-            sum += value;
-        }
-        return sum / data.size();
+        return getSum() / getCount();
     }
     
     // Calculate median (middle value)
     public double getMedian() {
-        if (data.isEmpty()) return 0.0;
+        if (getCount() == 0) return 0.0;
         
-        List<Double> sorted = new ArrayList<>(data);
-        Collections.sort(sorted);
+        NumericColumn sorted = sortedData();
         
         int size = sorted.size();
         if (size % 2 == 0) {
@@ -45,23 +54,20 @@ public class StatisticsCalculator {
         }
     }
     
-    // Calculate mode (most frequent value)
+    // Calculate mode (most frequent value; the smallest one on ties)
     public double getMode() {
-        if (data.isEmpty()) return 0.0;
-        
-        // Count frequency of each value
-        java.util.Map<Double, Integer> frequency = new java.util.HashMap<>();
-        for (double value : data) {
-            frequency.put(value, frequency.getOrDefault(value, 0) + 1);
-        }
+        if (getCount() == 0) return 0.0;
         
-        // Find most frequent value
-        double mode = data.get(0);
+        // Equal values are adjacent once sorted, so the longest run wins
+        NumericColumn sorted = sortedData();
+        double mode = sorted.get(0);
         int maxFreq = 0;
-        for (java.util.Map.Entry<Double, Integer> entry : frequency.entrySet()) {
-            if (entry.getValue() > maxFreq) {
-                maxFreq = entry.getValue();
-                mode = entry.getKey();
+        int run = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            run = (i > 0 && sorted.get(i) == sorted.get(i - 1)) ? run + 1 : 1;
+            if (run > maxFreq) {
+                maxFreq = run;
+                mode = sorted.get(i);
             }
         }
         return mode;
@@ -69,19 +75,21 @@ public class StatisticsCalculator {
     
     // Calculate standard deviation
     public double getStandardDeviation() {
-        if (data.isEmpty()) return 0.0;
+        if (getCount() == 0) return 0.0;
         
         double mean = getMean();
         double sumSquaredDifferences = 0.0;
         
         // Calculate sum of squared differences from mean
-        for (double value : data) {
+        for (int i = 0; i < data.size(); i++) {
+            double value = data.get(i);
+            if (Double.isNaN(value)) continue;
             double difference = value - mean;
             sumSquaredDifferences += difference * difference;
         }
         
         // Calculate variance (average of squared differences)
-        double variance = sumSquaredDifferences / data.size();
+        double variance = sumSquaredDifferences / getCount();
         
         // Standard deviation is square root of variance
         return Math.sqrt(variance);
@@ -89,10 +97,11 @@ public class StatisticsCalculator {
     
     // Calculate minimum value
     public double getMin() {
-        if (data.isEmpty()) return 0.0;
+        if (getCount() == 0) return 0.0;
         
-        double min = data.get(0);
-        for (double value : data) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < data.size(); i++) {
+            double value = data.get(i);
             if (value < min) {
                 min = value;
             }
@@ -102,10 +111,11 @@ public class StatisticsCalculator {
     
     // Calculate maximum value
     public double getMax() {
-        if (data.isEmpty()) return 0.0;
+        if (getCount() == 0) return 0.0;
         
-        double max = data.get(0);
-        for (double value : data) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < data.size(); i++) {
+            double value = data.get(i);
             if (value > max) {
                 max = value;
             }
@@ -116,8 +126,11 @@ public class StatisticsCalculator {
     // Calculate sum
     public double getSum() {
         double sum = 0.0;
-        for (double value : data) {
-            sum += value;
+        for (int i = 0; i < data.size(); i++) {
+            double value = data.get(i);
+            if (!Double.isNaN(value)) {
+                sum += value;
+            }
         }
         return sum;
     }
@@ -129,17 +142,23 @@ public class StatisticsCalculator {
     
     // Get count of data points
     public int getCount() {
-        return data.size();
+        if (count < 0) {
+            int n = 0;
+            for (int i = 0; i < data.size(); i++) {
+                if (!Double.isNaN(data.get(i))) n++;
+            }
+            count = n;
+        }
+        return count;
     }
     
     // Get quartiles
     public double[] getQuartiles() {
-        if (data.size() < 4) {
+        if (getCount() < 4) {
             return new double[]{getMin(), getMedian(), getMax()};
         }
         
-        List<Double> sorted = new ArrayList<>(data);
-        Collections.sort(sorted);
+        NumericColumn sorted = sortedData();
         
         int size = sorted.size();
         
@@ -64,18 +64,20 @@ public class StatisticsPanel extends JPanel {
             return;
         }
         
+        LoadMetrics.PhaseTimer statsTimer = dataSet.startPhase("stats");
         try {
             // Get numeric data from selected column
-            java.util.List<Double> numericData = dataSet.getColumnAsNumbers(selectedColumn);
+            // (read in place, so off-heap columns stay off the heap)
+            NumericColumn numericData = dataSet.getNumericColumn(selectedColumn);
             
-            if (numericData.isEmpty()) {
+            // Calculate statistics
+            StatisticsCalculator calc = new StatisticsCalculator(numericData, selectedColumn);
+            
+            if (calc.getCount() == 0) {
                 statisticsText.setText("No numeric data in column: " + selectedColumn);
                 return;
             }
             
-            // Calculate statistics
-            StatisticsCalculator calc = new StatisticsCalculator(numericData, selectedColumn);
-            
             // Build report
             StringBuilder report = new StringBuilder();
             report.append("╔════════════════════════════════════════════╗\n");
@@ -83,7 +85,11 @@ public class StatisticsPanel extends JPanel {
             report.append("╚════════════════════════════════════════════╝\n\n");
             
             report.append("Column: ").append(selectedColumn).append("\n");
-            report.append("Data Points: ").append(calc.getCount()).append("\n\n");
+            report.append("Data Points: ").append(calc.getCount()).append("\n");
+            if (dataSet.isApproximate()) {
+                report.append("APPROXIMATE: computed from a preview sample\n");
+            }
+            report.append("\n");
             
             report.append("┌─ Measures of Central Tendency ─────────────┐\n");
             report.append(String.format("│ Mean (Average):        %10.2f          │\n", calc.getMean()));
@@ -109,6 +115,8 @@ public class StatisticsPanel extends JPanel {
             
         } catch (Exception e) {
             statisticsText.setText("Error calculating statistics: " + e.getMessage());
+        } finally {
+            statsTimer.stop(0, dataSet.getRowCount());
         }
     }
 }